@@ -0,0 +1,158 @@
+import java.util.ArrayList;
+import java.util.Random;
+
+import qm.bench.Fixtures;
+
+/**
+ * Default package side of the benchmark fixtures, and the random
+ * functions shared with ScalingHarness.
+ */
+public class BenchmarkFixtures implements Fixtures {
+    @Override
+    public String expression(int number, int terms, long seed) {
+        return randomExpression(number, terms, new Random(seed));
+    }
+
+    @Override
+    public long[] minterms(int number, double density, long seed) {
+        TruthTable table = randomTable(number, density, new Random(seed));
+        long[] minterms = new long[(int) table.cardinality()];
+        long m = table.nextMinterm(0);
+        for (int i = 0; i < minterms.length; i++) {
+            minterms[i] = m;
+            m = table.nextMinterm(m + 1);
+        }
+        return minterms;
+    }
+
+    @Override
+    public Object parse(CharSequence expression, int number) {
+        return Expression.parse(expression, number);
+    }
+
+    @Override
+    public Object compile(String expression, int number) {
+        return Expression.compile(expression, number);
+    }
+
+    @Override
+    public Object registers(Object expression) {
+        return new long[((Expression) expression).registerCount()];
+    }
+
+    @Override
+    public long evaluateWord(Object expression, long word,
+                             Object registers) {
+        return ((Expression) expression).evaluateWord(word,
+                (long[]) registers);
+    }
+
+    @Override
+    public Object truthTable(Object expression) {
+        return TruthTable.of((Expression) expression);
+    }
+
+    @Override
+    public void fill(Object table, Object expression, Object registers) {
+        ((TruthTable) table).fill((Expression) expression,
+                (long[]) registers);
+    }
+
+    @Override
+    public Object groups(int number, long[] minterms) {
+        CubeList[] groups = new CubeList[number + 1];
+        for (int i = 0; i < groups.length; i++) {
+            groups[i] = new CubeList(number);
+        }
+        for (long m : minterms) {
+            groups[Long.bitCount(m)].add(Cube.ofMinterm(number, m));
+        }
+        return groups;
+    }
+
+    @Override
+    public Object foundPI(Object groups) {
+        return Main.foundPI((CubeList[]) groups, new ArrayList<>());
+    }
+
+    @Override
+    public Object primeImplicants(int number, long[] minterms) {
+        ArrayList<Minterm> PIs = new ArrayList<>();
+        CubeList[] temp = (CubeList[]) groups(number, minterms);
+        while (!Main.isEmpty(temp)) {
+            temp = Main.foundPI(temp, PIs);
+        }
+        return PIs;
+    }
+
+    @Override
+    public Object mintermArray(int number, long[] minterms) {
+        Minterm[] array = new Minterm[minterms.length];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = new Minterm();
+            array[i].setCube(Cube.ofMinterm(number, minterms[i]));
+        }
+        return array;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object foundEPI(Object primeImplicants, Object minterms) {
+        return Main.foundEPI((ArrayList<Minterm>) primeImplicants,
+                (Minterm[]) minterms);
+    }
+
+    @Override
+    public Object minterm(String binary) {
+        Minterm minterm = new Minterm();
+        minterm.setBinary(binary);
+        return minterm;
+    }
+
+    @Override
+    public Object distance(Object left, Object right) {
+        return ((Minterm) left).distance((Minterm) right);
+    }
+
+    /**
+     * Generates a random sum of products with dots between literals.
+     */
+    static String randomExpression(int number, int terms, Random random) {
+        StringBuilder sb = new StringBuilder();
+        for (int t = 0; t < terms; t++) {
+            if (t > 0) {
+                sb.append(" + ");
+            }
+            // Each term fixes about a quarter of the variables, at least 1
+            int literals = 0;
+            for (int i = 0; i < number; i++) {
+                boolean last = i == number - 1 && literals == 0;
+                if (!last && random.nextInt(4) != 0) {
+                    continue;
+                }
+                if (literals++ > 0) {
+                    sb.append('.');
+                }
+                sb.append((char) ('A' + i));
+                if (random.nextBoolean()) {
+                    sb.append('\'');
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Generates a random ON-set, each minterm with a probability.
+     */
+    static TruthTable randomTable(int number, double density,
+                                  Random random) {
+        TruthTable table = new TruthTable(number);
+        for (long m = 0; m < 1L << number; m++) {
+            if (random.nextDouble() < density) {
+                table.set(m);
+            }
+        }
+        return table;
+    }
+}
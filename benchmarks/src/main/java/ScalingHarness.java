@@ -0,0 +1,312 @@
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs the whole minimizer on random functions of growing size and
+ * writes one CSV or JSON record per run: the time of each phase, as
+ * timed by Metrics, the allocation and peak heap of the call, and
+ * whether the answer is right.
+ *
+ * Functions are random sums of products or random ON-sets of a given
+ * density, from the generators of the JMH benchmarks. Every answer
+ * is expanded back to a truth table and compared bit for bit with the
+ * input function; for small n the input itself is also checked
+ * against Main.findMin, the original evaluator. A series stops
+ * growing n once one run takes longer than the budget, so the last
+ * records of a series show where it falls off a cliff. A run still
+ * going after the budget is recorded as a timeout and its Budget
+ * cancelled; it may still fill a truth table on its daemon thread for
+ * a while, so the next records are best read with that in mind. Runs
+ * are one at a time, as the Metrics are process-wide.
+ *
+ * Usage: java ScalingHarness [--min=2] [--max=24] [--repeat=3]
+ *        [--terms=4,16] [--densities=0.05,0.25,0.5] [--budget=10]
+ *        [--reference-limit=12] [--format=csv|json] [--seed=1]
+ */
+public class ScalingHarness {
+    private static final String[] COLUMNS = {
+            "kind", "parameter", "variables", "seed", "minterms",
+            "primeImplicants", "cubes", "literals", "validationNanos",
+            "tableNanos", "primesNanos", "coverNanos", "totalNanos",
+            "allocatedBytes", "peakHeapBytes", "correct"
+    };
+    private static final int TOTAL = Arrays.asList(COLUMNS)
+            .indexOf("totalNanos");
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean)
+                    ManagementFactory.getThreadMXBean();
+    private final List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+    private final Minimizer minimizer = new Minimizer();
+    private final int referenceLimit;
+
+    private ScalingHarness(int referenceLimit) {
+        this.referenceLimit = referenceLimit;
+        for (MemoryPoolMXBean pool
+                : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                heapPools.add(pool);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException,
+            ExecutionException {
+        int min = 2;
+        int max = 24;
+        int repeat = 3;
+        int[] terms = {4, 16};
+        double[] densities = {0.05, 0.25, 0.5};
+        long budget = 10_000_000_000L;
+        int referenceLimit = 12;
+        boolean json = false;
+        long seed = 1;
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--min=")) {
+                min = Integer.parseInt(value);
+            }
+            if (arg.startsWith("--max=")) {
+                max = Integer.parseInt(value);
+            }
+            if (arg.startsWith("--repeat=")) {
+                repeat = Integer.parseInt(value);
+            }
+            if (arg.startsWith("--terms=")) {
+                terms = Arrays.stream(value.split(","))
+                        .mapToInt(Integer::parseInt).toArray();
+            }
+            if (arg.startsWith("--densities=")) {
+                densities = Arrays.stream(value.split(","))
+                        .mapToDouble(Double::parseDouble).toArray();
+            }
+            if (arg.startsWith("--budget=")) {
+                budget = (long) (Double.parseDouble(value) * 1e9);
+            }
+            if (arg.startsWith("--reference-limit=")) {
+                referenceLimit = Integer.parseInt(value);
+            }
+            if (arg.startsWith("--format=")) {
+                json = value.equals("json");
+            }
+            if (arg.startsWith("--seed=")) {
+                seed = Long.parseLong(value);
+            }
+        }
+        ScalingHarness harness = new ScalingHarness(referenceLimit);
+        ExecutorService executor = newExecutor();
+        PrintStream out = System.out;
+        if (json) {
+            out.println("[");
+        }
+        else {
+            out.println(String.join(",", COLUMNS));
+        }
+        boolean first = true;
+        List<String> series = new ArrayList<>();
+        for (int t : terms) {
+            series.add("expression:" + t);
+        }
+        for (double d : densities) {
+            series.add("density:" + d);
+        }
+        for (String s : series) {
+            String kind = s.substring(0, s.indexOf(':'));
+            String parameter = s.substring(s.indexOf(':') + 1);
+            Random random = new Random(seed);
+            boolean overBudget = false;
+            for (int n = min; n <= max && !overBudget; n++) {
+                for (int r = 0; r < repeat; r++) {
+                    long runSeed = random.nextLong();
+                    int variables = n;
+                    Budget stop = new Budget(0, 0);
+                    Future<Object[]> run = executor.submit(() ->
+                            harness.run(kind, parameter, variables,
+                                    runSeed, stop));
+                    Object[] record;
+                    try {
+                        record = run.get(budget, TimeUnit.NANOSECONDS);
+                    } catch (TimeoutException e) {
+                        record = new Object[COLUMNS.length];
+                        Arrays.fill(record, "");
+                        record[0] = kind;
+                        record[1] = parameter;
+                        record[2] = n;
+                        record[3] = runSeed;
+                        record[COLUMNS.length - 1] = "timeout";
+                        stop.cancel();
+                        executor.shutdownNow();
+                        executor = newExecutor();
+                    }
+                    out.println(json ? (first ? "  " : ", ")
+                            + toJson(record) : toCsv(record));
+                    out.flush();
+                    first = false;
+                    if (!(record[TOTAL] instanceof Long)
+                            || (Long) record[TOTAL] > budget) {
+                        overBudget = true;
+                        break;
+                    }
+                }
+            }
+        }
+        if (json) {
+            out.println("]");
+        }
+        executor.shutdownNow();
+    }
+
+    private static ExecutorService newExecutor() {
+        return Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "scaling-run");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Generates one function and minimizes it with the Minimizer,
+     * reading the time of each phase from the Metrics.
+     *
+     * @param budget Budget of the call, cancelled on a timeout
+     * @return The values of the record, in the order of COLUMNS
+     */
+    private Object[] run(String kind, String parameter, int number,
+                         long seed, Budget budget) {
+        Random random = new Random(seed);
+        String expression = null;
+        TruthTable table;
+        if (kind.equals("expression")) {
+            expression = BenchmarkFixtures.randomExpression(number,
+                    Integer.parseInt(parameter), random);
+            table = TruthTable.of(Expression.compile(expression, number));
+        }
+        else {
+            table = BenchmarkFixtures.randomTable(number,
+                    Double.parseDouble(parameter), random);
+        }
+        System.gc();
+        for (MemoryPoolMXBean pool : heapPools) {
+            pool.resetPeakUsage();
+        }
+        long thread = Thread.currentThread().getId();
+        Map<String, Long> before = Metrics.snapshot();
+        long bytes = threads.getThreadAllocatedBytes(thread);
+        // Expressions go through validation and the truth table phase
+        MinimizationResult result = expression != null
+                ? minimizer.minimize(new Job("1", number, expression),
+                budget)
+                : minimizer.minimize(table, new TruthTable(number), budget);
+        bytes = threads.getThreadAllocatedBytes(thread) - bytes;
+        Map<String, Long> after = Metrics.snapshot();
+        long peak = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peak += pool.getPeakUsage().getUsed();
+        }
+        List<Cube> cubes = result.getCubes();
+        boolean correct = sameFunction(cubes, table)
+                && (expression == null || number > referenceLimit
+                || matchesReference(expression, table));
+        return new Object[]{kind, parameter, number, seed,
+                table.cardinality(),
+                delta(before, after, "prime-implicants"), cubes.size(),
+                result.getLiterals(),
+                delta(before, after, "phase.validation.nanos"),
+                delta(before, after, "phase.truth-table.nanos"),
+                delta(before, after, "phase.prime-implicants.nanos"),
+                delta(before, after, "phase.cover.nanos"),
+                result.getElapsedNanos(), bytes, peak, correct};
+    }
+
+    private static long delta(Map<String, Long> before,
+                              Map<String, Long> after, String name) {
+        return after.get(name) - before.get(name);
+    }
+
+    /**
+     * Expands a cover to its truth table and compares it with the
+     * function.
+     */
+    private static boolean sameFunction(List<Cube> cubes,
+                                        TruthTable table) {
+        int number = table.getNumber();
+        TruthTable answer = new TruthTable(number);
+        for (Cube cube : cubes) {
+            for (long m = cube.firstMinterm(); m >= 0;
+                 m = cube.nextMinterm(m)) {
+                answer.set(m);
+            }
+        }
+        for (int w = 0; w < table.wordCount(); w++) {
+            if (answer.getWord(w) != table.getWord(w)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares the truth table with the original evaluator, one
+     * assignment at a time.
+     */
+    private static boolean matchesReference(String expression,
+                                            TruthTable table) {
+        int number = table.getNumber();
+        for (int m = 0; m < 1 << number; m++) {
+            String binary = Main.intToBinary(m, number);
+            if (Main.findMin(expression, binary) != table.get(m)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String toCsv(Object[] record) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < record.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(format(record[i]));
+        }
+        return sb.toString();
+    }
+
+    private static String toJson(Object[] record) {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < record.length; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append('"').append(COLUMNS[i]).append("\": ");
+            if ("".equals(record[i])) {
+                sb.append("null");
+            }
+            else if (record[i] instanceof String) {
+                sb.append('"').append(record[i]).append('"');
+            }
+            else {
+                sb.append(format(record[i]));
+            }
+        }
+        return sb.append('}').toString();
+    }
+
+    private static String format(Object value) {
+        return String.format(Locale.ROOT, "%s", value);
+    }
+}
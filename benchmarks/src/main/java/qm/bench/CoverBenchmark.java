@@ -0,0 +1,51 @@
+package qm.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The cover step, Main.foundEPI, on the Prime Implicants of a random
+ * ON-set: building the cover table, the essential pass and the
+ * branch and bound solver.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CoverBenchmark {
+    private static final Fixtures FIXTURES = Fixtures.load();
+
+    @Param({"6", "8", "10"})
+    public int number;
+
+    @Param({"0.3", "0.6"})
+    public double density;
+
+    private Object primeImplicants;
+    private Object minterms;
+
+    @Setup
+    public void setup() {
+        long[] ones = FIXTURES.minterms(number, density, 42);
+        primeImplicants = FIXTURES.primeImplicants(number, ones);
+        minterms = FIXTURES.mintermArray(number, ones);
+    }
+
+    @Benchmark
+    public Object foundEPI() {
+        return FIXTURES.foundEPI(primeImplicants, minterms);
+    }
+}
@@ -0,0 +1,71 @@
+package qm.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Truth table generation: one call of Expression.evaluateWord, which
+ * evaluates 64 assignments at once, a whole table built by
+ * TruthTable.of and one refilled in place by TruthTable.fill.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluatorBenchmark {
+    private static final Fixtures FIXTURES = Fixtures.load();
+    private static final int WORDS = 64;
+
+    @Param({"8", "12", "16"})
+    public int number;
+
+    @Param({"4", "16"})
+    public int terms;
+
+    private Object expression;
+    private Object registers;
+    private Object table;
+
+    @Setup
+    public void setup() {
+        expression = FIXTURES.compile(FIXTURES.expression(number, terms,
+                42), number);
+        registers = FIXTURES.registers(expression);
+        table = FIXTURES.truthTable(expression);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WORDS)
+    public void evaluateWord(Blackhole blackhole) {
+        for (long word = 0; word < WORDS; word++) {
+            blackhole.consume(FIXTURES.evaluateWord(expression, word,
+                    registers));
+        }
+    }
+
+    @Benchmark
+    public Object truthTable() {
+        return FIXTURES.truthTable(expression);
+    }
+
+    @Benchmark
+    public Object fill() {
+        FIXTURES.fill(table, expression, registers);
+        return table;
+    }
+}
@@ -0,0 +1,137 @@
+package qm.bench;
+
+/**
+ * Calls into the minimizer, whose classes live in the default package
+ * and so can't be named from here. The implementation,
+ * BenchmarkFixtures, sits in the default package and is loaded by
+ * name once; inputs and outputs of minimizer types pass as Object.
+ */
+public interface Fixtures {
+    /**
+     * Loads the default package implementation.
+     *
+     * @return The fixtures
+     */
+    static Fixtures load() {
+        try {
+            return (Fixtures) Class.forName("BenchmarkFixtures")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Generates a random sum of products over n variables.
+     *
+     * @param number Number of variables
+     * @param terms Number of product terms
+     * @param seed Random seed
+     * @return The expression
+     */
+    String expression(int number, int terms, long seed);
+
+    /**
+     * Generates a random ON-set.
+     *
+     * @param number Number of variables
+     * @param density Probability of each minterm
+     * @param seed Random seed
+     * @return The minterm numbers in increasing order
+     */
+    long[] minterms(int number, double density, long seed);
+
+    /**
+     * Validates and compiles an expression with Expression.parse, from
+     * a CharSequence.
+     *
+     * @return The Expression
+     */
+    Object parse(CharSequence expression, int number);
+
+    /**
+     * Validates and compiles an expression with Expression.compile.
+     *
+     * @return The Expression
+     */
+    Object compile(String expression, int number);
+
+    /**
+     * Allocates the scratch registers of a compiled expression.
+     *
+     * @return A long array
+     */
+    Object registers(Object expression);
+
+    /**
+     * Evaluates a compiled expression for 64 assignments at once.
+     *
+     * @return The 64 values packed into one word
+     */
+    long evaluateWord(Object expression, long word, Object registers);
+
+    /**
+     * Builds the truth table of a compiled expression with
+     * TruthTable.of.
+     *
+     * @return The TruthTable
+     */
+    Object truthTable(Object expression);
+
+    /**
+     * Overwrites a truth table with that of a compiled expression,
+     * TruthTable.fill.
+     */
+    void fill(Object table, Object expression, Object registers);
+
+    /**
+     * Builds the first column of the tabulation.
+     *
+     * @return The cubes grouped by number of 1s
+     */
+    Object groups(int number, long[] minterms);
+
+    /**
+     * Runs one column of the tabulation.
+     *
+     * @param groups Cubes grouped by number of 1s
+     * @return The next column
+     */
+    Object foundPI(Object groups);
+
+    /**
+     * Runs every column of the tabulation.
+     *
+     * @return The Prime Implicants
+     */
+    Object primeImplicants(int number, long[] minterms);
+
+    /**
+     * Builds the Minterm objects of an ON-set.
+     *
+     * @return A Minterm array
+     */
+    Object mintermArray(int number, long[] minterms);
+
+    /**
+     * Picks the Essential Prime Implicants and solves the cover table.
+     *
+     * @return The chosen Prime Implicants
+     */
+    Object foundEPI(Object primeImplicants, Object minterms);
+
+    /**
+     * Builds the Minterm of one cube, such as "01-1".
+     *
+     * @return A Minterm
+     */
+    Object minterm(String binary);
+
+    /**
+     * Merges two Minterms.
+     *
+     * @return The merged cube, or null if they differ in more than
+     *         one place
+     */
+    Object distance(Object left, Object right);
+}
@@ -0,0 +1,62 @@
+package qm.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Merging two cubes, Minterm.distance, for a pair that merges and a
+ * pair that doesn't.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MintermBenchmark {
+    private static final Fixtures FIXTURES = Fixtures.load();
+
+    @Param({"8", "32", "100"})
+    public int number;
+
+    private Object left;
+    private Object adjacent;
+    private Object distant;
+
+    @Setup
+    public void setup() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < number; i++) {
+            sb.append(i % 3 == 0 ? '-' : i % 3 == 1 ? '0' : '1');
+        }
+        left = FIXTURES.minterm(sb.toString());
+        // Differs in the last fixed variable only
+        int last = sb.charAt(number - 1) == '-' ? number - 2 : number - 1;
+        sb.setCharAt(last, sb.charAt(last) == '0' ? '1' : '0');
+        adjacent = FIXTURES.minterm(sb.toString());
+        // And in the first fixed one too
+        sb.setCharAt(1, '1');
+        distant = FIXTURES.minterm(sb.toString());
+    }
+
+    @Benchmark
+    public Object distanceMerged() {
+        return FIXTURES.distance(left, adjacent);
+    }
+
+    @Benchmark
+    public Object distanceRejected() {
+        return FIXTURES.distance(left, distant);
+    }
+}
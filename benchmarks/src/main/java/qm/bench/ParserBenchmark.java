@@ -0,0 +1,56 @@
+package qm.bench;
+
+import java.nio.CharBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Validation and compilation of an input expression, by
+ * Expression.compile on the string and by Expression.parse on a
+ * CharBuffer, as a memory-mapped input reaches it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+    private static final Fixtures FIXTURES = Fixtures.load();
+
+    @Param({"4", "8", "16"})
+    public int number;
+
+    @Param({"4", "32"})
+    public int terms;
+
+    private String expression;
+    private CharBuffer buffer;
+
+    @Setup
+    public void setup() {
+        expression = FIXTURES.expression(number, terms, 42);
+        buffer = CharBuffer.wrap(expression);
+    }
+
+    @Benchmark
+    public Object compile() {
+        return FIXTURES.compile(expression, number);
+    }
+
+    @Benchmark
+    public Object parse() {
+        return FIXTURES.parse(buffer, number);
+    }
+}
@@ -0,0 +1,48 @@
+package qm.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One column of the tabulation, Main.foundPI, on the minterms of a
+ * random ON-set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TabulationBenchmark {
+    private static final Fixtures FIXTURES = Fixtures.load();
+
+    @Param({"8", "12", "14"})
+    public int number;
+
+    @Param({"0.1", "0.5"})
+    public double density;
+
+    private Object groups;
+
+    @Setup
+    public void setup() {
+        groups = FIXTURES.groups(number,
+                FIXTURES.minterms(number, density, 42));
+    }
+
+    @Benchmark
+    public Object foundPI() {
+        return FIXTURES.foundPI(groups);
+    }
+}
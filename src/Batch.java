@@ -0,0 +1,162 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Minimizes a stream of jobs, one per line, on a fixed number of
+ * worker threads. At most a few jobs per worker are read ahead, so a
+ * slow consumer or a long input holds the reader back instead of
+ * filling the heap. Results go to a buffered writer either in input
+ * order or as soon as each job completes.
+ */
+public class Batch {
+    private final int workers;
+    private final boolean ordered;
+    private final Minimizer minimizer;
+
+    /**
+     * Creates a batch runner.
+     *
+     * @param workers Number of worker threads
+     * @param ordered true to write results in input order
+     * @param espresso Espresso engine to use, or null for the exact one
+     * @param cost Cost of a PI in the cover
+     */
+    public Batch(int workers, boolean ordered, Espresso espresso,
+                 CoverSolver.Cost cost) {
+        // Jobs are spread over the workers, so each job merges serially
+        this(workers, ordered, new Minimizer(espresso, cost, null));
+    }
+
+    /**
+     * Creates a batch runner around a shared minimizer.
+     *
+     * @param workers Number of worker threads
+     * @param ordered true to write results in input order
+     * @param minimizer Minimizer used by every worker
+     */
+    public Batch(int workers, boolean ordered, Minimizer minimizer) {
+        this.workers = workers;
+        this.ordered = ordered;
+        this.minimizer = minimizer;
+    }
+
+    /**
+     * Reads every job, minimizes it and writes one result line each:
+     * the job id, a tab and the answer or the error, which only ends
+     * the job it comes from. An answer not proven minimal is followed
+     * by a tab and "gap=" with how far its cost may be above the
+     * minimum, or "gap=?" for an Espresso answer.
+     *
+     * @param in Source of job lines
+     * @param out Destination of result lines, flushed at the end
+     * @throws IOException if reading or writing fails
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void run(BufferedReader in, Writer out)
+            throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        int limit = 4 * workers;
+        // Unordered: jobs queued or running. Ordered: jobs not yet written
+        Semaphore permits = new Semaphore(limit);
+        // Ordered jobs, in input order
+        ArrayDeque<Future<String>> pending = new ArrayDeque<>();
+        // Unordered jobs, handed back as they complete
+        CompletionService<String> completed =
+                new ExecutorCompletionService<>(executor);
+        long running = 0;
+        try {
+            String line;
+            long lineNumber = 0;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                String text = line;
+                long id = lineNumber;
+                if (ordered) {
+                    while (pending.size() >= limit) {
+                        out.write(get(pending.poll()));
+                    }
+                    pending.add(executor.submit(() -> solve(text, id)));
+                    while (!pending.isEmpty() && pending.peek().isDone()) {
+                        out.write(get(pending.poll()));
+                    }
+                    continue;
+                }
+                permits.acquire();
+                running++;
+                completed.submit(() -> {
+                    try {
+                        String answer = solve(text, id);
+                        synchronized (out) {
+                            out.write(answer);
+                        }
+                        return answer;
+                    } finally {
+                        permits.release();
+                    }
+                });
+                // Drop finished jobs, only kept to report write errors
+                Future<String> done;
+                while ((done = completed.poll()) != null) {
+                    running--;
+                    get(done);
+                }
+            }
+            while (!pending.isEmpty()) {
+                out.write(get(pending.poll()));
+            }
+            for (; running > 0; running--) {
+                get(completed.take());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        out.flush();
+    }
+
+    private static String gap(MinimizationResult result) {
+        return result.getGap() == MinimizationResult.UNKNOWN_GAP ? "?"
+                : String.valueOf(result.getGap());
+    }
+
+    private String solve(String line, long lineNumber) {
+        String id = String.valueOf(lineNumber);
+        try {
+            Job job = Job.parse(line, lineNumber);
+            id = job.getId();
+            MinimizationResult result = minimizer.minimize(job);
+            return id + "\t" + result + (result.isOptimal() ? ""
+                    : "\tgap=" + gap(result)) + "\n";
+        } catch (IllegalArgumentException e) {
+            return id + "\terror: " + e.getMessage() + "\n";
+        } catch (RuntimeException e) {
+            // A failure of one job is its result, not the end of the batch
+            return id + "\terror: " + e + "\n";
+        }
+    }
+
+    private static String get(Future<String> result)
+            throws InterruptedException, IOException {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
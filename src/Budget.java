@@ -0,0 +1,129 @@
+/**
+ * Bounds one exact minimization in time and size, and reports how far
+ * it got. A budget has a deadline, a ceiling on the cubes held by the
+ * tabulation and a cancellation flag that any thread may set. Once one
+ * of them is hit the minimizer stops merging or searching and returns
+ * the best cover it has, which is always valid: at worst the essential
+ * PIs completed greedily. The budget then tells that the cover is not
+ * proven minimal and gives a lower bound on the cost of any cover.
+ *
+ * A budget belongs to a single call; use a new one for each. A
+ * decomposed call gives each leaf a part of it, which shares its
+ * deadline, ceiling and cancellation.
+ */
+public class Budget {
+    private final long start;
+    private final long timeLimit;
+    private final long maxCubes;
+    // Budget of the whole call, for the budget of a part of it
+    private final Budget parent;
+    // Whether the call can be stopped at all
+    private final boolean limited;
+    private volatile boolean cancelled;
+    private boolean optimal = true;
+    private long lowerBound;
+
+    /**
+     * Creates a budget starting now.
+     *
+     * @param timeLimit Time limit in nanoseconds, 0 for none
+     * @param maxCubes Largest number of cubes the tabulation may hold,
+     *                 0 for no limit
+     */
+    public Budget(long timeLimit, long maxCubes) {
+        this(System.nanoTime(), timeLimit, maxCubes, null, true);
+    }
+
+    private Budget(long start, long timeLimit, long maxCubes,
+                   Budget parent, boolean limited) {
+        this.start = start;
+        this.timeLimit = timeLimit;
+        this.maxCubes = maxCubes;
+        this.parent = parent;
+        this.limited = limited;
+    }
+
+    /**
+     * Creates a budget that no one can cancel and without limits, to
+     * get the bound of a decomposed cover back from a call given no
+     * budget.
+     */
+    static Budget unlimited() {
+        return new Budget(System.nanoTime(), 0, 0, null, false);
+    }
+
+    /**
+     * Returns the budget of a part of the call, such as a leaf of a
+     * decomposition. It has the same deadline and cube ceiling, stops
+     * when this one is cancelled and tells if its own part is
+     * optimal.
+     *
+     * @return The budget, or null if this one has no limits and no
+     *         one can cancel it
+     */
+    Budget part() {
+        return limited ? new Budget(start, timeLimit, maxCubes, this, true)
+                : null;
+    }
+
+    /**
+     * Asks the minimization to stop as soon as it can. Safe to call
+     * from any thread.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled || parent != null && parent.isCancelled();
+    }
+
+    /**
+     * Checks if the minimization must stop: it was cancelled, its
+     * thread was interrupted or the time limit has passed.
+     *
+     * @return true if out of budget
+     */
+    public boolean isExhausted() {
+        return isCancelled() || Thread.currentThread().isInterrupted()
+                || timeLimit > 0 && System.nanoTime() - start >= timeLimit;
+    }
+
+    /**
+     * Checks if the minimization must stop, or holds more cubes than
+     * the ceiling.
+     *
+     * @param cubes Number of cubes held by the tabulation
+     * @return true if out of budget
+     */
+    boolean isExhausted(long cubes) {
+        return maxCubes > 0 && cubes > maxCubes || isExhausted();
+    }
+
+    /**
+     * Tells if the cover of the call is a minimum one. Before the call
+     * ends it tells if the budget was hit so far.
+     */
+    public boolean isOptimal() {
+        return optimal;
+    }
+
+    /**
+     * Returns a lower bound on the cost of every cover, if the cover
+     * is not optimal: 0 when the tabulation didn't finish, otherwise
+     * the essential PIs plus a bound on the rest of the cover table.
+     */
+    public long getLowerBound() {
+        return lowerBound;
+    }
+
+    /**
+     * Records that the cover is not proven minimal.
+     *
+     * @param bound A lower bound on the cost of any cover
+     */
+    void approximate(long bound) {
+        lowerBound = optimal ? bound : Math.min(lowerBound, bound);
+        optimal = false;
+    }
+}
@@ -0,0 +1,205 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal covers of every function of 1 to 4 variables, read from a
+ * generated binary table instead of being computed.
+ *
+ * The file starts with the magic number, the version and, for each
+ * number of variables n, the offset and record size of its section.
+ * A section holds one fixed size record per truth table, indexed by
+ * the table itself: a count byte followed by one byte per cube, the
+ * values in the low and the mask in the high nibble. Records are read
+ * in place from the mapped file, so loading copies nothing and a
+ * lookup only allocates the returned list.
+ */
+public class CoverLibrary {
+    /** Largest number of variables in the table. */
+    public static final int MAX_VARIABLES = 4;
+    private static final int MAGIC = 0x514D434C;
+    private static final int VERSION = 1;
+    private static final String RESOURCE = "covers.bin";
+    private static final int HEADER = 8 + 8 * MAX_VARIABLES;
+
+    // Every cube of up to 4 variables, by size and cube byte
+    private static final Cube[][] CUBES = new Cube[MAX_VARIABLES + 1][256];
+
+    private final ByteBuffer buffer;
+
+    private CoverLibrary(ByteBuffer buffer) {
+        this.buffer = buffer.order(ByteOrder.BIG_ENDIAN);
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("not a cover library");
+        }
+    }
+
+    /**
+     * Maps a cover library file.
+     *
+     * @param path The file
+     * @return The library
+     * @throws IOException if the file can't be read
+     */
+    public static CoverLibrary open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.READ)) {
+            return new CoverLibrary(channel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Returns the library shipped next to the classes, mapped on first
+     * use, or null if it is missing.
+     */
+    public static CoverLibrary get() {
+        return Holder.LIBRARY;
+    }
+
+    private static final class Holder {
+        private static final CoverLibrary LIBRARY = load();
+
+        private static CoverLibrary load() {
+            URL url = CoverLibrary.class.getResource(RESOURCE);
+            if (url == null) {
+                return null;
+            }
+            try {
+                if (url.getProtocol().equals("file")) {
+                    return open(Paths.get(url.toURI()));
+                }
+                // Inside a jar there is no file to map
+                try (InputStream in = url.openStream()) {
+                    byte[] bytes = in.readAllBytes();
+                    ByteBuffer buffer = ByteBuffer.allocateDirect(
+                            bytes.length);
+                    buffer.put(bytes).flip();
+                    return new CoverLibrary(buffer);
+                }
+            } catch (IOException | URISyntaxException
+                     | IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Looks up the minimal cover of a function without don't-cares.
+     *
+     * @param table ON-set of the function
+     * @return The cover, as Minimizer would find it with the cost
+     *         CUBES, or null if the function has too many variables
+     */
+    public List<Cube> lookup(TruthTable table) {
+        int number = table.getNumber();
+        if (number > MAX_VARIABLES) {
+            return null;
+        }
+        int function = (int) table.getWord(0);
+        int count = count(number, function);
+        List<Cube> cubes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            cubes.add(cube(number, cube(number, function, i)));
+        }
+        return cubes;
+    }
+
+    /**
+     * Returns the number of cubes in the cover of a function.
+     *
+     * @param number Number of variables, 1 to 4
+     * @param function Truth table, bit m set for minterm m
+     * @return Number of cubes
+     */
+    public int count(int number, int function) {
+        return buffer.get(record(number, function)) & 0xFF;
+    }
+
+    /**
+     * Returns one cube of the cover of a function as a byte, the
+     * values in the low and the mask in the high nibble.
+     *
+     * @param number Number of variables, 1 to 4
+     * @param function Truth table, bit m set for minterm m
+     * @param i Index of the cube
+     * @return The cube byte
+     */
+    public int cube(int number, int function, int i) {
+        return buffer.get(record(number, function) + 1 + i) & 0xFF;
+    }
+
+    private int record(int number, int function) {
+        int section = 8 + 8 * (number - 1);
+        return buffer.getInt(section)
+                + function * buffer.getInt(section + 4);
+    }
+
+    private static Cube cube(int number, int packed) {
+        Cube cube = CUBES[number][packed];
+        if (cube == null) {
+            // Benign race, every thread builds an equal cube
+            cube = new Cube(number, packed & 0xF, packed >>> 4);
+            CUBES[number][packed] = cube;
+        }
+        return cube;
+    }
+
+    /**
+     * Generates the library by minimizing every function.
+     *
+     * @param args The output file
+     * @throws IOException if the file can't be written
+     */
+    public static void main(String[] args) throws IOException {
+        Minimizer minimizer = new Minimizer(null, CoverSolver.Cost.CUBES,
+                null, null, null);
+        int[] offsets = new int[MAX_VARIABLES + 1];
+        int[] recordSizes = new int[MAX_VARIABLES + 1];
+        int size = HEADER;
+        for (int n = 1; n <= MAX_VARIABLES; n++) {
+            offsets[n] = size;
+            // A minimal cover never has more than 2^(n-1) cubes
+            recordSizes[n] = 1 + (1 << (n - 1));
+            size += (1 << (1 << n)) * recordSizes[n];
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).putInt(VERSION);
+        for (int n = 1; n <= MAX_VARIABLES; n++) {
+            buffer.putInt(offsets[n]).putInt(recordSizes[n]);
+        }
+        for (int n = 1; n <= MAX_VARIABLES; n++) {
+            TruthTable table = new TruthTable(n);
+            TruthTable dontCares = new TruthTable(n);
+            for (int function = 0; function < 1 << (1 << n); function++) {
+                table.setWord(0, function);
+                List<Cube> cover = minimizer.minimize(table, dontCares)
+                        .getCubes();
+                int record = offsets[n] + function * recordSizes[n];
+                buffer.put(record, (byte) cover.size());
+                for (int i = 0; i < cover.size(); i++) {
+                    Cube cube = cover.get(i);
+                    buffer.put(record + 1 + i, (byte) (cube.getValue(0)
+                            | cube.getMask(0) << 4));
+                }
+            }
+        }
+        try (FileChannel channel = FileChannel.open(Paths.get(args[0]),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            buffer.rewind();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
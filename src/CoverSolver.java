@@ -0,0 +1,663 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Exact minimum-cost set cover for the prime implicant table.
+ * The table is reduced by essential rows, row dominance and column
+ * dominance until only its cyclic core is left, and the core is solved
+ * by branch and bound, starting from the greedy cover.
+ *
+ * The lower bound of a node is the larger of two bounds no cover can
+ * beat: the cost of a set of pairwise independent columns, taken from
+ * the columns with the fewest rows first, and a Lagrangian bound. The
+ * latter prices every column with a multiplier and improves the prices
+ * by subgradient steps; each node starts from the prices of its parent,
+ * so a few steps are enough below the root. The reduced costs of the
+ * rows also drop every row whose choice alone would reach the best
+ * cover's cost. A branch tries the rows of the column with the fewest
+ * rows, cheapest and then largest first.
+ *
+ * With a Budget the search stops when the budget runs out and the best
+ * cover found so far, at first the greedy one, is returned.
+ */
+public class CoverSolver {
+
+    /**
+     * Cost of choosing a prime implicant.
+     */
+    public enum Cost {
+        CUBES, LITERALS;
+
+        public int of(Cube cube) {
+            return this == CUBES ? 1 : cube.literals();
+        }
+    }
+
+    private final int rowWords;
+    private final int columnWords;
+    // Columns covered by each row and rows covering each column
+    private final long[][] rows;
+    private final long[][] columns;
+    // Subgradient steps at the root and at the other nodes
+    private static final int ROOT_STEPS = 300;
+    private static final int NODE_STEPS = 30;
+
+    private final int[] cost;
+    private final Budget budget;
+
+    private int bestCost;
+    private int[] best;
+    private long nodes;
+    private boolean stopped;
+    private int rootBound;
+
+    /**
+     * Creates a solver for a cover table.
+     *
+     * @param table The cover table
+     * @param cost Cost of each row
+     */
+    public CoverSolver(CoverTable table, int[] cost) {
+        this(table, cost, null);
+    }
+
+    /**
+     * Creates a solver whose search stops when a budget runs out.
+     *
+     * @param table The cover table
+     * @param cost Cost of each row
+     * @param budget The budget, or null for none
+     */
+    public CoverSolver(CoverTable table, int[] cost, Budget budget) {
+        this.budget = budget;
+        this.rowWords = CoverTable.words(table.rowCount());
+        this.columnWords = CoverTable.words(table.columnCount());
+        this.rows = new long[table.rowCount()][];
+        this.columns = new long[table.columnCount()][];
+        for (int r = 0; r < rows.length; r++) {
+            rows[r] = table.columnsOf(r);
+        }
+        for (int c = 0; c < columns.length; c++) {
+            columns[c] = table.rowsOf(c);
+        }
+        this.cost = cost;
+    }
+
+    /**
+     * Finds a cover of all columns with the minimum total cost.
+     *
+     * @return Indexes of the chosen rows,
+     * or null if some column is not covered by any row
+     */
+    public int[] solve() {
+        return solve(CoverTable.all(rows.length),
+                CoverTable.all(columns.length));
+    }
+
+    /**
+     * Finds a minimum-cost cover of some columns using some rows.
+     *
+     * @param activeRows Rows that may be chosen, changed by the call
+     * @param activeColumns Columns to cover, changed by the call
+     * @return Indexes of the chosen rows,
+     * or null if some column is not covered by any active row
+     */
+    public int[] solve(long[] activeRows, long[] activeColumns) {
+        best = greedy(activeRows.clone(), activeColumns.clone());
+        if (best == null) {
+            return null;
+        }
+        best = irredundant(best, activeColumns);
+        bestCost = 0;
+        for (int r : best) {
+            bestCost += cost[r];
+        }
+        nodes = 0;
+        stopped = false;
+        // Replaced by the bound of the reduced root once it is known
+        rootBound = independentBound(activeRows, activeColumns);
+        search(activeRows, activeColumns, new ArrayList<>(), 0, null);
+        Metrics.add(Metrics.Counter.BRANCH_NODES, nodes);
+        return best;
+    }
+
+    /**
+     * Tells if the last solve finished its search, so that its cover
+     * has the minimum cost.
+     */
+    public boolean isOptimal() {
+        return !stopped;
+    }
+
+    /**
+     * Returns a lower bound on the cost of every cover of the last
+     * solve: the cost of its cover if it is optimal, otherwise the
+     * bound of the whole table.
+     */
+    public int getLowerBound() {
+        return stopped ? Math.min(rootBound, bestCost) : bestCost;
+    }
+
+    /**
+     * Builds a cover by repeatedly taking the row with the lowest
+     * cost per newly covered column, the lowest index on ties. Used
+     * as the first upper bound, and as the cover when the budget runs
+     * out. A row's ratio only grows as columns get covered, so the
+     * rows wait in a heap by their last ratio and only the top one is
+     * brought up to date: if it stays on top it is the best row.
+     */
+    private int[] greedy(long[] activeRows, long[] activeColumns) {
+        double[] ratio = new double[rows.length];
+        PriorityQueue<Integer> queue = new PriorityQueue<>((a, b) ->
+                ratio[a] != ratio[b] ? Double.compare(ratio[a], ratio[b])
+                        : Integer.compare(a, b));
+        for (int r = CoverTable.nextBit(activeRows, 0); r >= 0;
+             r = CoverTable.nextBit(activeRows, r + 1)) {
+            int covered = CoverTable.intersection(rows[r], activeColumns);
+            if (covered > 0) {
+                ratio[r] = (double) cost[r] / covered;
+                queue.add(r);
+            }
+        }
+        ArrayList<Integer> chosen = new ArrayList<>();
+        while (!CoverTable.isEmpty(activeColumns)) {
+            Integer pick = queue.poll();
+            if (pick == null) {
+                return null;
+            }
+            int covered = CoverTable.intersection(rows[pick],
+                    activeColumns);
+            if (covered == 0) {
+                continue;
+            }
+            double current = (double) cost[pick] / covered;
+            if (current != ratio[pick]) {
+                ratio[pick] = current;
+                Integer next = queue.peek();
+                if (next != null && (current > ratio[next]
+                        || current == ratio[next] && next < pick)) {
+                    queue.add(pick);
+                    continue;
+                }
+            }
+            chosen.add(pick);
+            select(pick, activeRows, activeColumns);
+        }
+        return toArray(chosen);
+    }
+
+    /**
+     * Drops the rows of a cover whose columns are all covered by its
+     * other rows, the most expensive rows first.
+     */
+    private int[] irredundant(int[] cover, long[] activeColumns) {
+        int[] count = new int[columns.length];
+        Integer[] order = new Integer[cover.length];
+        for (int i = 0; i < cover.length; i++) {
+            order[i] = cover[i];
+            for (int c = firstCommonBit(rows[cover[i]], activeColumns);
+                 c >= 0; c = nextCommonBit(rows[cover[i]], activeColumns,
+                    c + 1)) {
+                count[c]++;
+            }
+        }
+        Arrays.sort(order, (a, b) -> cost[a] != cost[b]
+                ? Integer.compare(cost[b], cost[a]) : Integer.compare(a, b));
+        ArrayList<Integer> kept = new ArrayList<>();
+        for (int r : order) {
+            boolean needed = false;
+            for (int c = firstCommonBit(rows[r], activeColumns);
+                 c >= 0 && !needed;
+                 c = nextCommonBit(rows[r], activeColumns, c + 1)) {
+                needed = count[c] == 1;
+            }
+            if (needed) {
+                kept.add(r);
+                continue;
+            }
+            for (int c = firstCommonBit(rows[r], activeColumns); c >= 0;
+                 c = nextCommonBit(rows[r], activeColumns, c + 1)) {
+                count[c]--;
+            }
+        }
+        return toArray(kept);
+    }
+
+    /**
+     * Searches the covers of a node.
+     *
+     * @param prices Column multipliers of the parent node, or null at
+     *               the root
+     */
+    private void search(long[] activeRows, long[] activeColumns,
+                        ArrayList<Integer> chosen, int chosenCost,
+                        double[] prices) {
+        if (stopped || outOfBudget()) {
+            return;
+        }
+        boolean root = nodes++ == 0;
+        int mark = chosen.size();
+        chosenCost = reduce(activeRows, activeColumns, chosen, chosenCost);
+        if (chosenCost >= 0) {
+            if (CoverTable.isEmpty(activeColumns)) {
+                if (chosenCost < bestCost) {
+                    bestCost = chosenCost;
+                    best = toArray(chosen);
+                }
+            }
+            else {
+                double[] own = new double[columns.length];
+                if (prices != null) {
+                    System.arraycopy(prices, 0, own, 0, own.length);
+                }
+                int bound = chosenCost + lowerBound(activeRows,
+                        activeColumns, bestCost - chosenCost, own,
+                        prices != null, root ? ROOT_STEPS : NODE_STEPS);
+                if (root && !stopped) {
+                    rootBound = Math.min(bound, bestCost);
+                }
+                if (bound < bestCost) {
+                    branch(activeRows, activeColumns, chosen, chosenCost,
+                            own);
+                }
+            }
+        }
+        while (chosen.size() > mark) {
+            chosen.remove(chosen.size() - 1);
+        }
+    }
+
+    /**
+     * Branches on the column of the cyclic core with the fewest rows:
+     * one of its rows must be in every cover. Cheap rows that cover
+     * much are tried first, as they lead to good covers soonest.
+     */
+    private void branch(long[] activeRows, long[] activeColumns,
+                        ArrayList<Integer> chosen, int chosenCost,
+                        double[] prices) {
+        int column = -1;
+        int fewest = Integer.MAX_VALUE;
+        for (int c = CoverTable.nextBit(activeColumns, 0); c >= 0;
+             c = CoverTable.nextBit(activeColumns, c + 1)) {
+            int count = CoverTable.intersection(columns[c], activeRows);
+            if (count < fewest) {
+                fewest = count;
+                column = c;
+            }
+        }
+        long[] candidates = columns[column].clone();
+        and(candidates, activeRows);
+        int[] order = new int[fewest];
+        int[] covers = new int[rows.length];
+        int count = 0;
+        for (int r = CoverTable.nextBit(candidates, 0); r >= 0;
+             r = CoverTable.nextBit(candidates, r + 1)) {
+            covers[r] = CoverTable.intersection(rows[r], activeColumns);
+            order[count++] = r;
+        }
+        Integer[] sorted = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            sorted[i] = order[i];
+        }
+        Arrays.sort(sorted, (a, b) -> cost[a] != cost[b]
+                ? Integer.compare(cost[a], cost[b])
+                : covers[a] != covers[b] ? Integer.compare(covers[b],
+                covers[a]) : Integer.compare(a, b));
+        long[] remainingRows = activeRows.clone();
+        for (int r : sorted) {
+            long[] rowsCopy = remainingRows.clone();
+            long[] columnsCopy = activeColumns.clone();
+            select(r, rowsCopy, columnsCopy);
+            chosen.add(r);
+            search(rowsCopy, columnsCopy, chosen, chosenCost + cost[r],
+                    prices);
+            chosen.remove(chosen.size() - 1);
+            // Later branches do not use r, or they would repeat this one
+            remainingRows[r >>> 6] &= ~(1L << r);
+        }
+    }
+
+    /**
+     * Applies essential rows, row dominance and column dominance
+     * until none of them changes the table.
+     *
+     * @return The new cost of the chosen rows, or -1 if some column
+     * can no longer be covered
+     */
+    private int reduce(long[] activeRows, long[] activeColumns,
+                       ArrayList<Integer> chosen, int chosenCost) {
+        boolean changed = true;
+        while (changed) {
+            if (outOfBudget()) {
+                return -1;
+            }
+            changed = false;
+            // Essential rows
+            for (int c = CoverTable.nextBit(activeColumns, 0); c >= 0;
+                 c = CoverTable.nextBit(activeColumns, c + 1)) {
+                int count = CoverTable.intersection(columns[c], activeRows);
+                if (count == 0) {
+                    return -1;
+                }
+                if (count == 1) {
+                    int r = firstCommonBit(columns[c], activeRows);
+                    chosen.add(r);
+                    chosenCost += cost[r];
+                    select(r, activeRows, activeColumns);
+                    changed = true;
+                }
+            }
+            if (CoverTable.isEmpty(activeColumns)) {
+                break;
+            }
+            // Row dominance: drop a row whose columns are covered by a
+            // row that costs no more
+            for (int r = CoverTable.nextBit(activeRows, 0); r >= 0;
+                 r = CoverTable.nextBit(activeRows, r + 1)) {
+                // Each row is compared with every other, so the budget
+                // is checked row by row
+                if (outOfBudget()) {
+                    return -1;
+                }
+                if (CoverTable.intersection(rows[r], activeColumns) == 0) {
+                    activeRows[r >>> 6] &= ~(1L << r);
+                    changed = true;
+                    continue;
+                }
+                for (int s = CoverTable.nextBit(activeRows, 0); s >= 0;
+                     s = CoverTable.nextBit(activeRows, s + 1)) {
+                    if (s != r && cost[s] <= cost[r]
+                            && subset(rows[r], rows[s], activeColumns)
+                            && (cost[s] < cost[r] || s < r
+                            || !subset(rows[s], rows[r], activeColumns))) {
+                        activeRows[r >>> 6] &= ~(1L << r);
+                        changed = true;
+                        break;
+                    }
+                }
+            }
+            // Column dominance: a column whose rows all cover another
+            // column makes the other one redundant
+            for (int c = CoverTable.nextBit(activeColumns, 0); c >= 0;
+                 c = CoverTable.nextBit(activeColumns, c + 1)) {
+                if (outOfBudget()) {
+                    return -1;
+                }
+                for (int d = CoverTable.nextBit(activeColumns, 0); d >= 0;
+                     d = CoverTable.nextBit(activeColumns, d + 1)) {
+                    if (d != c && subset(columns[d], columns[c], activeRows)
+                            && (d < c
+                            || !subset(columns[c], columns[d], activeRows))) {
+                        activeColumns[c >>> 6] &= ~(1L << c);
+                        changed = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return chosenCost;
+    }
+
+    /**
+     * Checks the budget; once it has run out the search stays stopped.
+     */
+    private boolean outOfBudget() {
+        if (!stopped && budget != null && budget.isExhausted()) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    /**
+     * Bounds the cost of covering the active columns, and drops the
+     * rows that can't be in a cover cheaper than a limit.
+     *
+     * @param limit Cost a cover must stay below to matter
+     * @param prices Column multipliers, left at the best ones found
+     * @param warm Whether to start from the given multipliers
+     * @param steps Number of subgradient steps
+     * @return The bound
+     */
+    private int lowerBound(long[] activeRows, long[] activeColumns,
+                           int limit, double[] prices, boolean warm,
+                           int steps) {
+        int bound = independentBound(activeRows, activeColumns);
+        if (bound >= limit) {
+            return bound;
+        }
+        // The active part of each active row
+        int[] rowList = new int[CoverTable.intersection(activeRows,
+                activeRows)];
+        int[][] rowColumns = new int[rowList.length][];
+        int i = 0;
+        for (int r = CoverTable.nextBit(activeRows, 0); r >= 0;
+             r = CoverTable.nextBit(activeRows, r + 1)) {
+            int[] list = new int[CoverTable.intersection(rows[r],
+                    activeColumns)];
+            int k = 0;
+            for (int w = 0; w < columnWords; w++) {
+                long word = rows[r][w] & activeColumns[w];
+                while (word != 0) {
+                    list[k++] = (w << 6) + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                }
+            }
+            rowList[i] = r;
+            rowColumns[i++] = list;
+        }
+        double[] reduced = new double[rowList.length];
+        double lagrangian = lagrangian(rowList, rowColumns, activeColumns,
+                limit, prices, warm, reduced, steps);
+        bound = Math.max(bound, (int) Math.ceil(lagrangian - 1e-6));
+        if (bound < limit) {
+            // Forcing a row in raises the bound by its reduced cost
+            for (i = 0; i < rowList.length; i++) {
+                if (Math.ceil(lagrangian + reduced[i] - 1e-6) >= limit) {
+                    activeRows[rowList[i] >>> 6] &= ~(1L << rowList[i]);
+                }
+            }
+        }
+        return bound;
+    }
+
+    /**
+     * Computes a Lagrangian bound by subgradient optimization: with a
+     * price u_c >= 0 on every column, the sum of the prices plus the
+     * negative reduced costs cost_r - sum of u_c over the row is at most
+     * the cost of any cover.
+     *
+     * @param rowList Active rows
+     * @param rowColumns Active columns of each active row
+     * @param limit Cost of the best cover, used for the step size
+     * @param prices Multipliers, left at the best ones
+     * @param warm Whether to start from the given multipliers
+     * @param reduced Receives the reduced cost of each row at the best
+     *                multipliers
+     * @return The best bound found
+     */
+    private double lagrangian(int[] rowList, int[][] rowColumns,
+                              long[] activeColumns, int limit,
+                              double[] prices, boolean warm,
+                              double[] reduced, int steps) {
+        double[] u = prices;
+        if (!warm) {
+            // Start from the cheapest share of a row in each column
+            Arrays.fill(u, Double.MAX_VALUE);
+            for (int i = 0; i < rowList.length; i++) {
+                double share = (double) cost[rowList[i]]
+                        / rowColumns[i].length;
+                for (int c : rowColumns[i]) {
+                    u[c] = Math.min(u[c], share);
+                }
+            }
+        }
+        int[] degree = new int[columns.length];
+        double[] rc = new double[rowList.length];
+        double best = Double.NEGATIVE_INFINITY;
+        double[] bestU = u.clone();
+        double step = 2;
+        int stall = 0;
+        for (int k = 0; k < steps && !outOfBudget(); k++) {
+            double value = 0;
+            for (int c = CoverTable.nextBit(activeColumns, 0); c >= 0;
+                 c = CoverTable.nextBit(activeColumns, c + 1)) {
+                value += u[c];
+                degree[c] = 0;
+            }
+            for (int i = 0; i < rowList.length; i++) {
+                double r = cost[rowList[i]];
+                for (int c : rowColumns[i]) {
+                    r -= u[c];
+                }
+                rc[i] = r;
+                if (r < 0) {
+                    value += r;
+                    for (int c : rowColumns[i]) {
+                        degree[c]++;
+                    }
+                }
+            }
+            if (value > best + 1e-9) {
+                best = value;
+                System.arraycopy(u, 0, bestU, 0, u.length);
+                System.arraycopy(rc, 0, reduced, 0, rc.length);
+                stall = 0;
+            }
+            else if (++stall == 5) {
+                step /= 2;
+                stall = 0;
+            }
+            if (Math.ceil(best - 1e-6) >= limit || step < 1e-3) {
+                break;
+            }
+            // Columns covered once by the rows of negative reduced cost
+            // keep their price; the step is scaled by the gap to limit
+            double norm = 0;
+            for (int c = CoverTable.nextBit(activeColumns, 0); c >= 0;
+                 c = CoverTable.nextBit(activeColumns, c + 1)) {
+                int g = 1 - degree[c];
+                if (g < 0 && u[c] <= 0) {
+                    g = 0;
+                }
+                degree[c] = g;
+                norm += g * g;
+            }
+            if (norm == 0) {
+                break;
+            }
+            double t = step * (limit - value) / norm;
+            for (int c = CoverTable.nextBit(activeColumns, 0); c >= 0;
+                 c = CoverTable.nextBit(activeColumns, c + 1)) {
+                u[c] = Math.max(0, u[c] + t * degree[c]);
+            }
+        }
+        System.arraycopy(bestU, 0, prices, 0, prices.length);
+        return best;
+    }
+
+    /**
+     * Sums the cheapest row of each column in a greedy maximal set of
+     * columns that share no row, taken from the columns with the
+     * fewest rows, as those block the fewest others. Each needs a
+     * different row.
+     */
+    private int independentBound(long[] activeRows, long[] activeColumns) {
+        int count = CoverTable.intersection(activeColumns, activeColumns);
+        long[] keys = new long[count];
+        int k = 0;
+        for (int c = CoverTable.nextBit(activeColumns, 0); c >= 0;
+             c = CoverTable.nextBit(activeColumns, c + 1)) {
+            keys[k++] = (long) CoverTable.intersection(columns[c],
+                    activeRows) << 32 | c;
+        }
+        Arrays.sort(keys);
+        long[] used = new long[rowWords];
+        int bound = 0;
+        for (long key : keys) {
+            int c = (int) key;
+            boolean independent = true;
+            int cheapest = Integer.MAX_VALUE;
+            for (int w = 0; w < rowWords; w++) {
+                if ((columns[c][w] & activeRows[w] & used[w]) != 0) {
+                    independent = false;
+                    break;
+                }
+            }
+            if (!independent) {
+                continue;
+            }
+            for (int w = 0; w < rowWords; w++) {
+                long word = columns[c][w] & activeRows[w];
+                used[w] |= word;
+                while (word != 0) {
+                    int r = (w << 6) + Long.numberOfTrailingZeros(word);
+                    cheapest = Math.min(cheapest, cost[r]);
+                    word &= word - 1;
+                }
+            }
+            bound += cheapest;
+        }
+        return bound;
+    }
+
+    private void select(int r, long[] activeRows, long[] activeColumns) {
+        activeRows[r >>> 6] &= ~(1L << r);
+        for (int w = 0; w < columnWords; w++) {
+            activeColumns[w] &= ~rows[r][w];
+        }
+    }
+
+    private static boolean subset(long[] a, long[] b, long[] active) {
+        for (int w = 0; w < active.length; w++) {
+            if ((a[w] & active[w] & ~b[w]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int firstCommonBit(long[] a, long[] b) {
+        for (int w = 0; w < b.length; w++) {
+            if ((a[w] & b[w]) != 0) {
+                return (w << 6) + Long.numberOfTrailingZeros(a[w] & b[w]);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the first bit set in both sets at or after an index.
+     *
+     * @return The bit, or -1 if there is none
+     */
+    private static int nextCommonBit(long[] a, long[] b, int from) {
+        int w = from >>> 6;
+        if (w >= b.length) {
+            return -1;
+        }
+        long word = a[w] & b[w] & (-1L << from);
+        while (word == 0) {
+            if (++w == b.length) {
+                return -1;
+            }
+            word = a[w] & b[w];
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    private static void and(long[] a, long[] b) {
+        for (int w = 0; w < a.length; w++) {
+            a[w] &= b[w];
+        }
+    }
+
+    private static int[] toArray(ArrayList<Integer> list) {
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        Arrays.sort(array);
+        return array;
+    }
+}
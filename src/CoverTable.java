@@ -0,0 +1,206 @@
+import java.util.Arrays;
+
+/**
+ * The prime implicant cover table stored as bitsets.
+ * Each row (PI) keeps the set of columns it covers and each column
+ * (minterm) keeps the set of rows covering it, so essential rows,
+ * covering and emptiness checks work on whole words.
+ * Columns are found from minterm numbers with a sorted index.
+ */
+public class CoverTable {
+    private final int rowCount;
+    private final long[] minterms;
+    private final long[][] rows;
+    private final long[][] columns;
+
+    /**
+     * Creates an empty table.
+     *
+     * @param rowCount Number of PIs
+     * @param minterms Minterm numbers of the columns, in ascending order
+     */
+    public CoverTable(int rowCount, long[] minterms) {
+        this.rowCount = rowCount;
+        this.minterms = minterms;
+        this.rows = new long[rowCount][words(minterms.length)];
+        this.columns = new long[minterms.length][words(rowCount)];
+    }
+
+    /**
+     * Returns the number of words of a bitset.
+     *
+     * @param bits Number of bits
+     * @return Number of 64-bit words
+     */
+    public static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public int columnCount() {
+        return minterms.length;
+    }
+
+    public long minterm(int column) {
+        return minterms[column];
+    }
+
+    /**
+     * Finds the column of a minterm.
+     *
+     * @param minterm Minterm number
+     * @return Column index, or -1 if the minterm has no column
+     */
+    public int columnOf(long minterm) {
+        int column = Arrays.binarySearch(minterms, minterm);
+        return column < 0 ? -1 : column;
+    }
+
+    /**
+     * Marks the columns inside a cube as covered by a row: every
+     * minterm m with (m & ~mask) == value. Only the columns between
+     * the smallest and the largest minterm of the cube are looked at,
+     * and if the cube has fewer minterms than that range has columns,
+     * its minterms are looked up instead.
+     *
+     * @param row Row index
+     * @param value Value of the cube, 0 at the don't-cares
+     * @param mask Don't-cares of the cube
+     * @return Number of columns marked
+     */
+    public int cover(int row, long value, long mask) {
+        int from = firstAtLeast(value);
+        int to = firstAtLeast(value | mask);
+        if (to < minterms.length && minterms[to] == (value | mask)) {
+            to++;
+        }
+        int marked = 0;
+        int dashes = Long.bitCount(mask);
+        if (dashes < 31 && (1 << dashes) < (to - from) >>> 3) {
+            for (long m = value; m >= 0;
+                 m = Cube.nextMinterm(value, mask, m)) {
+                if (cover(row, m)) {
+                    marked++;
+                }
+            }
+            return marked;
+        }
+        for (int column = from; column < to; column++) {
+            if ((minterms[column] & ~mask) == value) {
+                rows[row][column >>> 6] |= 1L << column;
+                columns[column][row >>> 6] |= 1L << row;
+                marked++;
+            }
+        }
+        return marked;
+    }
+
+    /**
+     * Finds the first column whose minterm is not below a number.
+     */
+    private int firstAtLeast(long minterm) {
+        int column = Arrays.binarySearch(minterms, minterm);
+        return column < 0 ? -column - 1 : column;
+    }
+
+    /**
+     * Marks a minterm as covered by a row.
+     *
+     * @param row Row index
+     * @param minterm Minterm number
+     * @return false if the minterm has no column
+     */
+    public boolean cover(int row, long minterm) {
+        int column = columnOf(minterm);
+        if (column < 0) {
+            return false;
+        }
+        rows[row][column >>> 6] |= 1L << column;
+        columns[column][row >>> 6] |= 1L << row;
+        return true;
+    }
+
+    /**
+     * Returns the columns covered by a row. Must not be modified.
+     *
+     * @param row Row index
+     * @return Column bitset
+     */
+    public long[] columnsOf(int row) {
+        return rows[row];
+    }
+
+    /**
+     * Returns the rows covering a column. Must not be modified.
+     *
+     * @param column Column index
+     * @return Row bitset
+     */
+    public long[] rowsOf(int column) {
+        return columns[column];
+    }
+
+    /**
+     * Creates a bitset with the first n bits set.
+     *
+     * @param n Number of bits
+     * @return The bitset
+     */
+    public static long[] all(int n) {
+        long[] bits = new long[words(n)];
+        Arrays.fill(bits, -1L);
+        if ((n & 63) != 0) {
+            bits[bits.length - 1] = (1L << n) - 1;
+        }
+        return bits;
+    }
+
+    /**
+     * Finds the next set bit of a bitset.
+     *
+     * @param bits The bitset
+     * @param from First bit to look at
+     * @return Index of the next set bit, or -1 if there is none
+     */
+    public static int nextBit(long[] bits, int from) {
+        int w = from >>> 6;
+        if (w >= bits.length) {
+            return -1;
+        }
+        long word = bits[w] & (-1L << from);
+        while (word == 0) {
+            if (++w == bits.length) {
+                return -1;
+            }
+            word = bits[w];
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Counts the bits set in both bitsets.
+     *
+     * @param a First bitset
+     * @param b Second bitset, no longer than a
+     * @return Size of the intersection
+     */
+    public static int intersection(long[] a, long[] b) {
+        int count = 0;
+        for (int w = 0; w < b.length; w++) {
+            count += Long.bitCount(a[w] & b[w]);
+        }
+        return count;
+    }
+
+    public static boolean isEmpty(long[] bits) {
+        for (long word : bits) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,410 @@
+import java.util.Arrays;
+
+/**
+ * A product term (cube) over a fixed number of variables, packed into
+ * words instead of a String of '0', '1' and '-' characters.
+ * Variable i ('A' + i) lives at bit (size - 1 - i), so for up to 64
+ * variables the value word of a single minterm is its minterm number.
+ * A set bit in the mask marks that variable as a don't-care ('-').
+ */
+public class Cube {
+    private final int size;
+    private final long[] value;
+    private final long[] mask;
+
+    /**
+     * Creates a cube from its value and mask words.
+     * The arrays are used as they are and must not be modified afterwards.
+     *
+     * @param size Number of variables
+     * @param value Value words (bits under the mask are ignored)
+     * @param mask Don't-care mask words
+     */
+    public Cube(int size, long[] value, long[] mask) {
+        this.size = size;
+        this.value = value;
+        this.mask = mask;
+        for (int w = 0; w < value.length; w++) {
+            value[w] &= ~mask[w];
+        }
+    }
+
+    /**
+     * Creates a cube over at most 64 variables.
+     *
+     * @param size Number of variables
+     * @param value Value word
+     * @param mask Don't-care mask word
+     */
+    public Cube(int size, long value, long mask) {
+        this(size, new long[]{value}, new long[]{mask});
+    }
+
+    /**
+     * Returns the number of words needed for a number of variables.
+     *
+     * @param size Number of variables
+     * @return Number of 64-bit words
+     */
+    public static int words(int size) {
+        return Math.max(1, (size + 63) >>> 6);
+    }
+
+    /**
+     * Creates the cube of a single minterm.
+     *
+     * @param size Number of variables
+     * @param number Minterm number
+     * @return Cube without don't-cares
+     */
+    public static Cube ofMinterm(int size, long number) {
+        long[] value = new long[words(size)];
+        value[0] = number;
+        return new Cube(size, value, new long[value.length]);
+    }
+
+    /**
+     * Creates the cube that contains every assignment.
+     *
+     * @param size Number of variables
+     * @return Cube with every variable a don't-care
+     */
+    public static Cube universal(int size) {
+        long[] mask = new long[words(size)];
+        Arrays.fill(mask, -1L);
+        if ((size & 63) != 0) {
+            mask[mask.length - 1] = (1L << size) - 1;
+        }
+        return new Cube(size, new long[mask.length], mask);
+    }
+
+    /**
+     * Parses a cube from its '0', '1', '-' string form.
+     *
+     * @param binary String such as "1-0"
+     * @return Parsed cube
+     */
+    public static Cube parse(String binary) {
+        int size = binary.length();
+        long[] value = new long[words(size)];
+        long[] mask = new long[value.length];
+        for (int i = 0; i < size; i++) {
+            int bit = size - 1 - i;
+            char ch = binary.charAt(i);
+            if (ch == '1') {
+                value[bit >>> 6] |= 1L << bit;
+            }
+            else if (ch == '-') {
+                mask[bit >>> 6] |= 1L << bit;
+            }
+            else if (ch != '0') {
+                throw new IllegalArgumentException("invalid cube: " + binary);
+            }
+        }
+        return new Cube(size, value, mask);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int wordCount() {
+        return value.length;
+    }
+
+    public long getValue(int word) {
+        return value[word];
+    }
+
+    public long getMask(int word) {
+        return mask[word];
+    }
+
+    /**
+     * Returns the state of a variable.
+     *
+     * @param i Variable index (0 for 'A')
+     * @return '0', '1' or '-'
+     */
+    public char charAt(int i) {
+        int bit = size - 1 - i;
+        if ((mask[bit >>> 6] >>> bit & 1) != 0) {
+            return '-';
+        }
+        return (value[bit >>> 6] >>> bit & 1) != 0 ? '1' : '0';
+    }
+
+    public int numberOfOnes() {
+        int count = 0;
+        for (long word : value) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public int numberOfDashes() {
+        int count = 0;
+        for (long word : mask) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of literals of the product term.
+     *
+     * @return Variables that are not don't-cares
+     */
+    public int literals() {
+        return size - numberOfDashes();
+    }
+
+    /**
+     * Merges this cube with one that differs in exactly one
+     * specified variable.
+     *
+     * @param cube Cube to compare with
+     * @return Merged cube with a new don't-care,
+     * or null if the cubes are not at distance 1
+     */
+    public Cube distance(Cube cube) {
+        int diff = 0;
+        for (int w = 0; w < value.length; w++) {
+            if (mask[w] != cube.mask[w]) {
+                return null;
+            }
+            diff += Long.bitCount(value[w] ^ cube.value[w]);
+            if (diff > 1) {
+                return null;
+            }
+        }
+        if (diff == 0) {
+            return null;
+        }
+        long[] newValue = new long[value.length];
+        long[] newMask = new long[value.length];
+        for (int w = 0; w < value.length; w++) {
+            long bit = value[w] ^ cube.value[w];
+            newValue[w] = value[w] & ~bit;
+            newMask[w] = mask[w] | bit;
+        }
+        return new Cube(size, newValue, newMask);
+    }
+
+    /**
+     * Checks whether every minterm of another cube is in this cube.
+     *
+     * @param cube Cube to test
+     * @return true if this cube contains the given cube
+     */
+    public boolean contains(Cube cube) {
+        for (int w = 0; w < value.length; w++) {
+            if ((cube.mask[w] & ~mask[w]) != 0
+                    || ((value[w] ^ cube.value[w]) & ~mask[w]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the cube contains every assignment.
+     *
+     * @return true if every variable is a don't-care
+     */
+    public boolean isUniversal() {
+        for (int w = 0; w < mask.length; w++) {
+            if (mask[w] != fullMask(w)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Intersects this cube with another one.
+     *
+     * @param cube Cube to intersect with
+     * @return The common cube, or null if the cubes are disjoint
+     */
+    public Cube intersect(Cube cube) {
+        long[] newValue = new long[value.length];
+        long[] newMask = new long[value.length];
+        for (int w = 0; w < value.length; w++) {
+            if (((value[w] ^ cube.value[w]) & ~mask[w] & ~cube.mask[w]) != 0) {
+                return null;
+            }
+            newValue[w] = value[w] | cube.value[w];
+            newMask[w] = mask[w] & cube.mask[w];
+        }
+        return new Cube(size, newValue, newMask);
+    }
+
+    /**
+     * Computes the cofactor of this cube with respect to another one:
+     * the variables specified in the other cube become don't-cares.
+     *
+     * @param cube Cube to cofactor against
+     * @return The cofactor, or null if the cubes are disjoint
+     */
+    public Cube cofactor(Cube cube) {
+        long[] newValue = new long[value.length];
+        long[] newMask = new long[value.length];
+        for (int w = 0; w < value.length; w++) {
+            if (((value[w] ^ cube.value[w]) & ~mask[w] & ~cube.mask[w]) != 0) {
+                return null;
+            }
+            newValue[w] = value[w];
+            newMask[w] = mask[w] | (~cube.mask[w] & fullMask(w));
+        }
+        return new Cube(size, newValue, newMask);
+    }
+
+    /**
+     * Checks if a bit position is a don't-care.
+     *
+     * @param bit Bit position, size - 1 - i for variable i
+     * @return true if the variable at that bit is a don't-care
+     */
+    public boolean isDontCare(int bit) {
+        return (mask[bit >>> 6] >>> bit & 1) != 0;
+    }
+
+    /**
+     * Returns the value at a bit position.
+     *
+     * @param bit Bit position, size - 1 - i for variable i
+     * @return true if the variable at that bit is 1
+     */
+    public boolean isOne(int bit) {
+        return (value[bit >>> 6] >>> bit & 1) != 0;
+    }
+
+    /**
+     * Returns a copy of this cube with a variable made a don't-care.
+     *
+     * @param bit Bit position of the variable
+     * @return The larger cube
+     */
+    public Cube raise(int bit) {
+        long[] newMask = mask.clone();
+        newMask[bit >>> 6] |= 1L << bit;
+        return new Cube(size, value.clone(), newMask);
+    }
+
+    /**
+     * Returns a copy of this cube with a variable fixed to a value.
+     *
+     * @param bit Bit position of the variable
+     * @param one The value to fix it to
+     * @return The smaller cube
+     */
+    public Cube lower(int bit, boolean one) {
+        long[] newValue = value.clone();
+        long[] newMask = mask.clone();
+        newMask[bit >>> 6] &= ~(1L << bit);
+        if (one) {
+            newValue[bit >>> 6] |= 1L << bit;
+        }
+        return new Cube(size, newValue, newMask);
+    }
+
+    /**
+     * Returns the bits of a word that belong to variables.
+     *
+     * @param word Word index
+     * @return Mask with a bit set for every variable in the word
+     */
+    public long fullMask(int word) {
+        int bits = size - (word << 6);
+        return bits >= 64 ? -1L : (1L << bits) - 1;
+    }
+
+    /**
+     * Returns the smallest minterm in a cube of at most 63 variables.
+     * With nextMinterm it walks the minterms of the cube without
+     * allocating:
+     * for (long m = c.firstMinterm(); m >= 0; m = c.nextMinterm(m))
+     *
+     * @return The minterm with every don't-care at 0
+     */
+    public long firstMinterm() {
+        return value[0];
+    }
+
+    /**
+     * Returns the next minterm in a cube of at most 63 variables.
+     *
+     * @param minterm A minterm of the cube
+     * @return The next larger minterm of the cube, or -1 if there is
+     *         none
+     */
+    public long nextMinterm(long minterm) {
+        return nextMinterm(value[0], mask[0], minterm);
+    }
+
+    /**
+     * Returns the next minterm in the cube (value, mask) of at most
+     * 63 variables, counting up in the don't-care bits only.
+     *
+     * @param value Value word, 0 at the don't-cares
+     * @param mask Mask word
+     * @param minterm A minterm of the cube
+     * @return The next larger minterm of the cube, or -1 if there is
+     *         none
+     */
+    public static long nextMinterm(long value, long mask, long minterm) {
+        long free = ((minterm | ~mask) + 1) & mask;
+        return free == 0 ? -1 : value | free;
+    }
+
+    /**
+     * Checks whether a minterm is in this cube.
+     *
+     * @param number Minterm number (up to 64 variables)
+     * @return true if the cube covers the minterm
+     */
+    public boolean covers(long number) {
+        if (((number ^ value[0]) & ~mask[0]) != 0) {
+            return false;
+        }
+        for (int w = 1; w < value.length; w++) {
+            if ((value[w] & ~mask[w]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Cube)) {
+            return false;
+        }
+        Cube cube = (Cube) o;
+        return size == cube.size && Arrays.equals(value, cube.value)
+                && Arrays.equals(mask, cube.mask);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(value) + Arrays.hashCode(mask);
+    }
+
+    /**
+     * Builds the '0', '1', '-' form of the cube, e.g. for printing.
+     *
+     * @return Binary string with '-' for don't-cares
+     */
+    @Override
+    public String toString() {
+        char[] chars = new char[size];
+        for (int i = 0; i < size; i++) {
+            chars[i] = charAt(i);
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,197 @@
+import java.util.Arrays;
+
+/**
+ * A growable list of distinct cubes over the same variables.
+ * Value and mask words are stored back to back in primitive arrays
+ * and an open-addressing hash index on the canonical (value, mask)
+ * form rejects duplicates on insertion.
+ * Each cube carries a tag, the set of outputs it is an implicant of;
+ * single-output functions use tag 1.
+ */
+public class CubeList {
+    private final int size;
+    private final int words;
+    private long[] values;
+    private long[] masks;
+    private long[] tags;
+    private int count;
+    // Hash slots holding index + 1 of a cube, 0 when free
+    private int[] slots;
+
+    /**
+     * Creates an empty list.
+     *
+     * @param size Number of variables
+     */
+    public CubeList(int size) {
+        this.size = size;
+        this.words = Cube.words(size);
+        this.values = new long[16 * words];
+        this.masks = new long[16 * words];
+        this.tags = new long[16];
+        this.slots = new int[32];
+    }
+
+    /**
+     * Removes every cube but keeps the allocated capacity.
+     */
+    public void clear() {
+        Arrays.fill(slots, 0);
+        count = 0;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public long value(int i, int word) {
+        return values[i * words + word];
+    }
+
+    public long mask(int i, int word) {
+        return masks[i * words + word];
+    }
+
+    public long getTag(int i) {
+        return tags[i];
+    }
+
+    /**
+     * Builds a Cube object for one entry.
+     *
+     * @param i Index of the cube
+     * @return The cube
+     */
+    public Cube get(int i) {
+        return new Cube(size,
+                Arrays.copyOfRange(values, i * words, (i + 1) * words),
+                Arrays.copyOfRange(masks, i * words, (i + 1) * words));
+    }
+
+    /**
+     * Adds a cube unless an equal cube is already in the list.
+     *
+     * @param cube The cube to add
+     * @return Index of the new cube, or -1 if it was a duplicate
+     */
+    public int add(Cube cube) {
+        long[] value = new long[words];
+        long[] mask = new long[words];
+        for (int w = 0; w < words; w++) {
+            value[w] = cube.getValue(w);
+            mask[w] = cube.getMask(w);
+        }
+        return add(value, mask, 1);
+    }
+
+    /**
+     * Adds a cube given by its words unless it is already in the list.
+     * The arrays are copied.
+     *
+     * @param value Value words
+     * @param mask Mask words
+     * @param tag Outputs the cube belongs to
+     * @return Index of the new cube, or -1 if it was a duplicate
+     */
+    public int add(long[] value, long[] mask, long tag) {
+        int slot = find(value, mask);
+        if (slots[slot] != 0) {
+            return -1;
+        }
+        if ((count + 1) * words > values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+            masks = Arrays.copyOf(masks, masks.length * 2);
+            tags = Arrays.copyOf(tags, tags.length * 2);
+        }
+        System.arraycopy(value, 0, values, count * words, words);
+        System.arraycopy(mask, 0, masks, count * words, words);
+        tags[count] = tag;
+        slots[slot] = ++count;
+        if (2 * count > slots.length) {
+            rehash();
+        }
+        return count - 1;
+    }
+
+    /**
+     * Adds every cube of another list that is not already in this one,
+     * keeping their order.
+     *
+     * @param other The list to copy from
+     */
+    public void addAll(CubeList other) {
+        long[] value = new long[words];
+        long[] mask = new long[words];
+        for (int i = 0; i < other.count; i++) {
+            System.arraycopy(other.values, i * words, value, 0, words);
+            System.arraycopy(other.masks, i * words, mask, 0, words);
+            add(value, mask, other.tags[i]);
+        }
+    }
+
+    /**
+     * Looks up a cube by its words.
+     *
+     * @param value Value words
+     * @param mask Mask words
+     * @return Index of the cube, or -1 if it is not in the list
+     */
+    public int indexOf(long[] value, long[] mask) {
+        return slots[find(value, mask)] - 1;
+    }
+
+    public int numberOfOnes(int i) {
+        int ones = 0;
+        for (int w = 0; w < words; w++) {
+            ones += Long.bitCount(values[i * words + w]);
+        }
+        return ones;
+    }
+
+    private int find(long[] value, long[] mask) {
+        int slot = hash(value, mask) & (slots.length - 1);
+        while (slots[slot] != 0 && !matches(slots[slot] - 1, value, mask)) {
+            slot = (slot + 1) & (slots.length - 1);
+        }
+        return slot;
+    }
+
+    private boolean matches(int i, long[] value, long[] mask) {
+        for (int w = 0; w < words; w++) {
+            if (values[i * words + w] != value[w]
+                    || masks[i * words + w] != mask[w]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(long[] value, long[] mask) {
+        long h = 0;
+        for (int w = 0; w < value.length; w++) {
+            h = (h + value[w]) * 0x9E3779B97F4A7C15L;
+            h = (h + mask[w]) * 0x9E3779B97F4A7C15L;
+        }
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        return (int) (h ^ (h >>> 33));
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        long[] value = new long[words];
+        long[] mask = new long[words];
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(values, i * words, value, 0, words);
+            System.arraycopy(masks, i * words, mask, 0, words);
+            slots[find(value, mask)] = i + 1;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Heuristic two-level minimization in the style of Espresso.
+ * It works on cube covers directly: EXPAND grows each cube as long as
+ * it stays inside ON + DC, IRREDUNDANT drops cubes covered by the rest
+ * and REDUCE shrinks cubes to let the next EXPAND move them elsewhere.
+ * Every containment question is answered by a tautology check of a
+ * cofactor, so neither minterms nor prime implicants are enumerated.
+ * The result is near-minimal, not guaranteed minimal.
+ */
+public class Espresso {
+    private final int maxIterations;
+    private final long timeLimit;
+
+    /**
+     * Creates an engine with a budget for the REDUCE/EXPAND loop.
+     *
+     * @param maxIterations Maximum number of improvement rounds
+     * @param timeLimit Time limit in nanoseconds, 0 for none
+     */
+    public Espresso(int maxIterations, long timeLimit) {
+        this.maxIterations = maxIterations;
+        this.timeLimit = timeLimit;
+    }
+
+    /**
+     * Minimizes a function given as ON-set and don't-care covers.
+     *
+     * @param on Cubes of the ON-set
+     * @param dc Cubes of the don't-care set
+     * @return A cover of the ON-set inside ON + DC
+     */
+    public List<Cube> minimize(List<Cube> on, List<Cube> dc) {
+        long start = System.nanoTime();
+        List<Cube> care = new ArrayList<>(on);
+        care.addAll(dc);
+        List<Cube> best = irredundant(expand(removeContained(
+                new ArrayList<>(on)), care), dc);
+        for (int i = 0; i < maxIterations; i++) {
+            if (timeLimit > 0 && System.nanoTime() - start > timeLimit) {
+                break;
+            }
+            List<Cube> next = irredundant(expand(reduce(best, dc),
+                    care), dc);
+            if (!cheaper(next, best)) {
+                break;
+            }
+            best = next;
+        }
+        return best;
+    }
+
+    /**
+     * Expands every cube into a prime of ON + DC by raising literals
+     * while the cube stays covered, largest cubes first. Cubes that
+     * end up inside an expanded cube are dropped.
+     */
+    static List<Cube> expand(List<Cube> cover, List<Cube> care) {
+        List<Cube> cubes = new ArrayList<>(cover);
+        cubes.sort(Comparator.comparingInt(Cube::literals));
+        List<Cube> expanded = new ArrayList<>();
+        for (Cube cube : cubes) {
+            boolean covered = false;
+            for (Cube e : expanded) {
+                if (e.contains(cube)) {
+                    covered = true;
+                    break;
+                }
+            }
+            if (covered) {
+                continue;
+            }
+            for (int bit = cube.getSize() - 1; bit >= 0; bit--) {
+                if (cube.isDontCare(bit)) {
+                    continue;
+                }
+                Cube raised = cube.raise(bit);
+                if (covers(care, raised)) {
+                    cube = raised;
+                }
+            }
+            expanded.add(cube);
+        }
+        return removeContained(expanded);
+    }
+
+    /**
+     * Removes cubes covered by the other cubes and the don't-cares,
+     * smallest cubes first.
+     */
+    static List<Cube> irredundant(List<Cube> cover, List<Cube> dc) {
+        List<Cube> cubes = new ArrayList<>(cover);
+        cubes.sort(Comparator.comparingInt(Cube::literals).reversed());
+        for (int i = 0; i < cubes.size(); ) {
+            Cube cube = cubes.remove(i);
+            List<Cube> rest = new ArrayList<>(cubes);
+            rest.addAll(dc);
+            if (!covers(rest, cube)) {
+                cubes.add(i++, cube);
+            }
+        }
+        return cubes;
+    }
+
+    /**
+     * Shrinks every cube, largest first, to the part that no other
+     * cube or don't-care covers. Each free variable is fixed when one
+     * of its halves is already covered by the rest.
+     */
+    static List<Cube> reduce(List<Cube> cover, List<Cube> dc) {
+        List<Cube> cubes = new ArrayList<>(cover);
+        cubes.sort(Comparator.comparingInt(Cube::literals));
+        for (int i = 0; i < cubes.size(); i++) {
+            Cube cube = cubes.get(i);
+            List<Cube> rest = new ArrayList<>(cubes);
+            rest.remove(i);
+            rest.addAll(dc);
+            if (covers(rest, cube)) {
+                cubes.remove(i--);
+                continue;
+            }
+            for (int bit = cube.getSize() - 1; bit >= 0; bit--) {
+                if (!cube.isDontCare(bit)) {
+                    continue;
+                }
+                if (covers(rest, cube.lower(bit, true))) {
+                    cube = cube.lower(bit, false);
+                }
+                else if (covers(rest, cube.lower(bit, false))) {
+                    cube = cube.lower(bit, true);
+                }
+            }
+            cubes.set(i, cube);
+        }
+        return cubes;
+    }
+
+    /**
+     * Checks if a cube lies inside the union of a cover: true exactly
+     * when the cofactor of the cover with respect to the cube is a
+     * tautology.
+     *
+     * @param cover The cover
+     * @param cube The cube to test
+     * @return true if every minterm of the cube is covered
+     */
+    public static boolean covers(List<Cube> cover, Cube cube) {
+        List<Cube> cofactor = new ArrayList<>();
+        for (Cube c : cover) {
+            Cube f = c.cofactor(cube);
+            if (f != null) {
+                if (f.isUniversal()) {
+                    return true;
+                }
+                cofactor.add(f);
+            }
+        }
+        return tautology(cofactor);
+    }
+
+    /**
+     * Checks if a cover contains every assignment, splitting on the
+     * most binate variable. A cover without binate variables is unate
+     * and is a tautology only if it has the universal cube.
+     *
+     * @param cubes The cover
+     * @return true if the union of the cubes is the constant 1
+     */
+    public static boolean tautology(List<Cube> cubes) {
+        if (cubes.isEmpty()) {
+            return false;
+        }
+        int size = cubes.get(0).getSize();
+        int split = -1;
+        int most = 0;
+        for (int bit = 0; bit < size; bit++) {
+            int zeros = 0;
+            int ones = 0;
+            for (Cube cube : cubes) {
+                if (cube.isDontCare(bit)) {
+                    continue;
+                }
+                if (cube.isOne(bit)) {
+                    ones++;
+                }
+                else {
+                    zeros++;
+                }
+            }
+            if (zeros > 0 && ones > 0 && zeros + ones > most) {
+                most = zeros + ones;
+                split = bit;
+            }
+        }
+        if (split == -1) {
+            for (Cube cube : cubes) {
+                if (cube.isUniversal()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return tautology(cofactor(cubes, split, false))
+                && tautology(cofactor(cubes, split, true));
+    }
+
+    private static List<Cube> cofactor(List<Cube> cubes, int bit,
+                                       boolean one) {
+        List<Cube> cofactor = new ArrayList<>();
+        for (Cube cube : cubes) {
+            if (cube.isDontCare(bit)) {
+                cofactor.add(cube);
+            }
+            else if (cube.isOne(bit) == one) {
+                cofactor.add(cube.raise(bit));
+            }
+        }
+        return cofactor;
+    }
+
+    /**
+     * Removes every cube that is contained in another cube of the list.
+     *
+     * @param cubes The cubes
+     * @return The cubes that are not contained in another one
+     */
+    public static List<Cube> removeContained(List<Cube> cubes) {
+        List<Cube> sorted = new ArrayList<>(cubes);
+        sorted.sort(Comparator.comparingInt(Cube::literals));
+        List<Cube> kept = new ArrayList<>();
+        for (Cube cube : sorted) {
+            boolean contained = false;
+            for (Cube k : kept) {
+                if (k.contains(cube)) {
+                    contained = true;
+                    break;
+                }
+            }
+            if (!contained) {
+                kept.add(cube);
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Compares covers by number of cubes, then number of literals.
+     */
+    private static boolean cheaper(List<Cube> a, List<Cube> b) {
+        if (a.size() != b.size()) {
+            return a.size() < b.size();
+        }
+        return literals(a) < literals(b);
+    }
+
+    static int literals(List<Cube> cubes) {
+        int count = 0;
+        for (Cube cube : cubes) {
+            count += cube.literals();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,628 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A boolean expression compiled once into a flat instruction program.
+ * Every instruction writes one register and only reads registers written
+ * before it, so evaluation is a single pass over an int array.
+ * Common subexpressions are shared and constants are folded while the
+ * program is built.
+ */
+public class Expression {
+    static final int FALSE = 0;
+    static final int TRUE = 1;
+    static final int VAR = 2;
+    static final int NOT = 3;
+    static final int AND = 4;
+    static final int OR = 5;
+
+    private final int number;
+    // Three ints per instruction: opcode, first and second argument
+    private final int[] code;
+
+    private Expression(int number, int[] code) {
+        this.number = number;
+        this.code = code;
+    }
+
+    /**
+     * Returns the number of variables the expression was compiled for.
+     *
+     * @return Number of variables
+     */
+    public int getNumber() {
+        return number;
+    }
+
+    /**
+     * Returns the number of registers needed by the evaluators.
+     *
+     * @return Size of the scratch array to pass to evaluate
+     */
+    public int registerCount() {
+        return code.length / 3;
+    }
+
+    /**
+     * Compiles an expression such as "A.B' + (C+D)'".
+     * '.' binds tighter than '+' and ' negates the operand or
+     * parenthesized group right before it.
+     *
+     * @param input The expression string
+     * @param number Number of variables
+     * @return The compiled expression
+     * @throws IllegalArgumentException if the expression is malformed
+     */
+    public static Expression compile(String input, int number) {
+        return parse(input, number);
+    }
+
+    /**
+     * Validates and compiles an expression in one pass over its
+     * characters, such as the contents of a CharBuffer. Variables are
+     * the letters A to Z or x0, x1, ... by index, in any mix, and
+     * parentheses may nest to any depth.
+     *
+     * @param input The expression
+     * @param number Number of variables
+     * @return The compiled expression
+     * @throws IllegalArgumentException if the expression is malformed
+     */
+    public static Expression parse(CharSequence input, int number) {
+        Parser parser = new Parser(number);
+        for (int i = 0; i < input.length(); i++) {
+            parser.accept(input.charAt(i));
+        }
+        return parser.finish();
+    }
+
+    /**
+     * Validates and compiles an expression read from a stream, in time
+     * linear in its length and without holding the text in memory.
+     *
+     * @param input Source of the expression, read to the end
+     * @param number Number of variables
+     * @return The compiled expression
+     * @throws IOException if reading fails
+     * @throws IllegalArgumentException if the expression is malformed
+     */
+    public static Expression parse(Reader input, int number)
+            throws IOException {
+        Parser parser = new Parser(number);
+        char[] buffer = new char[8192];
+        int length;
+        while ((length = input.read(buffer)) != -1) {
+            for (int i = 0; i < length; i++) {
+                parser.accept(buffer[i]);
+            }
+        }
+        return parser.finish();
+    }
+
+    /**
+     * Evaluates the expression for one assignment without allocating.
+     *
+     * @param assignment Variable values, bit (number - 1 - i)
+     *                   holding variable 'A' + i
+     * @param registers Scratch array of at least registerCount() entries
+     * @return Value of the expression
+     */
+    public boolean evaluate(long assignment, boolean[] registers) {
+        int r = 0;
+        for (int pc = 0; pc < code.length; pc += 3, r++) {
+            switch (code[pc]) {
+                case FALSE:
+                    registers[r] = false;
+                    break;
+                case TRUE:
+                    registers[r] = true;
+                    break;
+                case VAR:
+                    registers[r] = (assignment >>> code[pc + 1] & 1) != 0;
+                    break;
+                case NOT:
+                    registers[r] = !registers[code[pc + 1]];
+                    break;
+                case AND:
+                    registers[r] = registers[code[pc + 1]]
+                            & registers[code[pc + 2]];
+                    break;
+                default:
+                    registers[r] = registers[code[pc + 1]]
+                            | registers[code[pc + 2]];
+                    break;
+            }
+        }
+        return registers[r - 1];
+    }
+
+    /**
+     * Evaluates the expression for 64 consecutive assignments at once.
+     * Bit j of the result is the value for assignment 64 * word + j,
+     * so variables become fixed bit patterns and the operators become
+     * word-wide AND, OR and NOT.
+     *
+     * @param word Index of the block of 64 assignments
+     * @param registers Scratch array of at least registerCount() entries
+     * @return The 64 results packed into one word
+     */
+    public long evaluateWord(long word, long[] registers) {
+        int r = 0;
+        for (int pc = 0; pc < code.length; pc += 3, r++) {
+            switch (code[pc]) {
+                case FALSE:
+                    registers[r] = 0;
+                    break;
+                case TRUE:
+                    registers[r] = -1L;
+                    break;
+                case VAR:
+                    registers[r] = TruthTable.pattern(code[pc + 1], word);
+                    break;
+                case NOT:
+                    registers[r] = ~registers[code[pc + 1]];
+                    break;
+                case AND:
+                    registers[r] = registers[code[pc + 1]]
+                            & registers[code[pc + 2]];
+                    break;
+                default:
+                    registers[r] = registers[code[pc + 1]]
+                            | registers[code[pc + 2]];
+                    break;
+            }
+        }
+        return registers[r - 1];
+    }
+
+    /**
+     * Converts the expression into a sum of products without
+     * enumerating assignments. Negations are pushed down to the
+     * variables: a register may need a cover of itself, of its
+     * complement or both, and only those are built. A run of '+'
+     * joins the covers of all its operands and removes contained
+     * cubes once; a run of '.' intersects its single-cube operands
+     * and multiplies out the rest.
+     *
+     * @return Cubes whose union is the ON-set of the expression
+     */
+    public List<Cube> toCover() {
+        int count = registerCount();
+        // Node 2r + 1 is register r, node 2r its complement. Covers are
+        // built for the root and the operands of maximal '+' and '.'
+        // runs only, from the top down.
+        boolean[] needed = new boolean[2 * count];
+        int[][] operands = new int[2 * count][];
+        int[] visited = new int[2 * count];
+        needed[2 * count - 1] = true;
+        for (int n = 2 * count - 1; n >= 0; n--) {
+            if (!needed[n]) {
+                continue;
+            }
+            int op = kind(n);
+            if (op == NOT) {
+                needed[2 * code[3 * (n >> 1) + 1] + (~n & 1)] = true;
+            }
+            else if (op == AND || op == OR) {
+                operands[n] = operands(n, op, visited);
+                for (int o : operands[n]) {
+                    needed[o] = true;
+                }
+            }
+        }
+        List<List<Cube>> covers = new ArrayList<>(2 * count);
+        for (int n = 0; n < 2 * count; n++) {
+            covers.add(needed[n] ? cover(n, operands[n], covers) : null);
+        }
+        return new ArrayList<>(covers.get(2 * count - 1));
+    }
+
+    /**
+     * Returns the operator of a node once its negation is pushed into
+     * the register: the complement of '.' is a '+' and vice versa.
+     */
+    private int kind(int n) {
+        int op = code[3 * (n >> 1)];
+        if ((n & 1) == 0 && (op == AND || op == OR)) {
+            return op == AND ? OR : AND;
+        }
+        return op;
+    }
+
+    /**
+     * Collects the operands of the run of op rooted at node n, looking
+     * through negations. Shared operands are listed once, as x+x = x
+     * and x.x = x.
+     */
+    private int[] operands(int n, int op, int[] visited) {
+        int[] found = new int[4];
+        int size = 0;
+        int[] stack = new int[16];
+        int top = 0;
+        stack[top++] = n;
+        // Marks are n + 1 so that the array needs no reset between runs
+        visited[n] = n + 1;
+        while (top > 0) {
+            int m = stack[--top];
+            int r = m >> 1;
+            int kind = kind(m);
+            if (m != n && kind != op && kind != NOT) {
+                if (size == found.length) {
+                    found = Arrays.copyOf(found, 2 * size);
+                }
+                found[size++] = m;
+                continue;
+            }
+            int positive = kind == NOT ? ~m & 1 : m & 1;
+            int children = kind == NOT ? 1 : 2;
+            for (int c = 0; c < children; c++) {
+                int child = 2 * code[3 * r + 1 + c] + positive;
+                if (visited[child] != n + 1) {
+                    visited[child] = n + 1;
+                    if (top == stack.length) {
+                        stack = Arrays.copyOf(stack, 2 * top);
+                    }
+                    stack[top++] = child;
+                }
+            }
+        }
+        return Arrays.copyOf(found, size);
+    }
+
+    private List<Cube> cover(int n, int[] operands, List<List<Cube>> covers) {
+        int r = n >> 1;
+        int a = code[3 * r + 1];
+        List<Cube> cubes = new ArrayList<>();
+        switch (kind(n)) {
+            case FALSE:
+            case TRUE:
+                if ((code[3 * r] == TRUE) == ((n & 1) == 1)) {
+                    cubes.add(Cube.universal(number));
+                }
+                return cubes;
+            case VAR:
+                cubes.add(Cube.universal(number).lower(a, (n & 1) == 1));
+                return cubes;
+            case NOT:
+                return covers.get(2 * a + (~n & 1));
+            case OR:
+                for (int o : operands) {
+                    cubes.addAll(covers.get(o));
+                }
+                return Espresso.removeContained(cubes);
+            default:
+                return product(operands, covers);
+        }
+    }
+
+    private List<Cube> product(int[] operands, List<List<Cube>> covers) {
+        Cube common = Cube.universal(number);
+        List<List<Cube>> sums = new ArrayList<>();
+        for (int o : operands) {
+            List<Cube> cover = covers.get(o);
+            if (cover.size() == 1) {
+                common = common.intersect(cover.get(0));
+                if (common == null) {
+                    return new ArrayList<>();
+                }
+            }
+            else if (cover.isEmpty()) {
+                return new ArrayList<>();
+            }
+            else {
+                sums.add(cover);
+            }
+        }
+        List<Cube> cubes = new ArrayList<>();
+        cubes.add(common);
+        for (List<Cube> sum : sums) {
+            cubes = product(cubes, sum);
+        }
+        return cubes;
+    }
+
+    private static List<Cube> product(List<Cube> a, List<Cube> b) {
+        List<Cube> cubes = new ArrayList<>();
+        for (Cube x : a) {
+            for (Cube y : b) {
+                Cube cube = x.intersect(y);
+                if (cube != null) {
+                    cubes.add(cube);
+                }
+            }
+        }
+        return Espresso.removeContained(cubes);
+    }
+
+    /**
+     * Builds the expression DAG with hash-consing and constant folding.
+     */
+    private static class Builder {
+        private int[] nodes = new int[48];
+        private int size;
+        // Open addressing from node key to node id + 1, 0 when free
+        private long[] keys = new long[32];
+        private int[] ids = new int[32];
+
+        int variable(int bit) {
+            return node(VAR, bit, 0);
+        }
+
+        int not(int a) {
+            switch (nodes[3 * a]) {
+                case FALSE:
+                    return node(TRUE, 0, 0);
+                case TRUE:
+                    return node(FALSE, 0, 0);
+                case NOT:
+                    return nodes[3 * a + 1];
+                default:
+                    return node(NOT, a, 0);
+            }
+        }
+
+        int binary(int op, int a, int b) {
+            int opA = nodes[3 * a];
+            int opB = nodes[3 * b];
+            // x.0 = 0, x.1 = x, x+1 = 1, x+0 = x
+            int absorbing = op == AND ? FALSE : TRUE;
+            int identity = op == AND ? TRUE : FALSE;
+            if (opA == absorbing || opB == absorbing) {
+                return node(absorbing, 0, 0);
+            }
+            if (opA == identity) {
+                return b;
+            }
+            if (opB == identity || a == b) {
+                return a;
+            }
+            // x.x' = 0, x+x' = 1
+            if ((opA == NOT && nodes[3 * a + 1] == b)
+                    || (opB == NOT && nodes[3 * b + 1] == a)) {
+                return node(absorbing, 0, 0);
+            }
+            return node(op, Math.min(a, b), Math.max(a, b));
+        }
+
+        int reduce(int[] operands, int top, char operator) {
+            if (top < 1) {
+                throw new IllegalArgumentException(
+                        "missing operand for '" + operator + "'");
+            }
+            operands[top - 1] = binary(operator == '.' ? AND : OR,
+                    operands[top - 1], operands[top]);
+            return top - 1;
+        }
+
+        private int node(int op, int a, int b) {
+            long key = ((long) op << 58) | ((long) a << 29) | b;
+            int slot = slot(key);
+            if (ids[slot] != 0) {
+                return ids[slot] - 1;
+            }
+            if (3 * size + 3 > nodes.length) {
+                nodes = Arrays.copyOf(nodes, nodes.length * 2);
+            }
+            nodes[3 * size] = op;
+            nodes[3 * size + 1] = a;
+            nodes[3 * size + 2] = b;
+            keys[slot] = key;
+            ids[slot] = size + 1;
+            if (2 * (size + 1) > ids.length) {
+                rehash();
+            }
+            return size++;
+        }
+
+        private int slot(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            int slot = (int) (h ^ h >>> 32) & (ids.length - 1);
+            while (ids[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & (ids.length - 1);
+            }
+            return slot;
+        }
+
+        private void rehash() {
+            long[] oldKeys = keys;
+            int[] oldIds = ids;
+            keys = new long[oldKeys.length * 2];
+            ids = new int[oldIds.length * 2];
+            for (int i = 0; i < oldIds.length; i++) {
+                if (oldIds[i] != 0) {
+                    int slot = slot(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    ids[slot] = oldIds[i];
+                }
+            }
+        }
+
+        /**
+         * Emits the nodes reachable from the root in creation order,
+         * which is already a valid evaluation order.
+         */
+        int[] emit(int root) {
+            boolean[] live = new boolean[size];
+            live[root] = true;
+            for (int i = root; i >= 0; i--) {
+                if (!live[i]) {
+                    continue;
+                }
+                int op = nodes[3 * i];
+                if (op == NOT || op == AND || op == OR) {
+                    live[nodes[3 * i + 1]] = true;
+                }
+                if (op == AND || op == OR) {
+                    live[nodes[3 * i + 2]] = true;
+                }
+            }
+            int[] register = new int[size];
+            int count = 0;
+            for (int i = 0; i <= root; i++) {
+                if (live[i]) {
+                    register[i] = count++;
+                }
+            }
+            int[] code = new int[3 * count];
+            int pc = 0;
+            for (int i = 0; i <= root; i++) {
+                if (!live[i]) {
+                    continue;
+                }
+                int op = nodes[3 * i];
+                code[pc] = op;
+                if (op == VAR) {
+                    code[pc + 1] = nodes[3 * i + 1];
+                }
+                else if (op != FALSE && op != TRUE) {
+                    code[pc + 1] = register[nodes[3 * i + 1]];
+                    code[pc + 2] = register[nodes[3 * i + 2]];
+                }
+                pc += 3;
+            }
+            return code;
+        }
+    }
+
+    /**
+     * Single pass tokenizer, validator and shunting-yard parser. It
+     * alternates between expecting an operand and expecting an
+     * operator, so every error is found at the character that causes
+     * it. The stacks grow as needed and no character allocates.
+     */
+    private static class Parser {
+        private final int number;
+        private final Builder builder = new Builder();
+        private int[] operands = new int[16];
+        private char[] operators = new char[16];
+        private int operandTop = -1;
+        private int operatorTop = -1;
+        private long position = -1;
+        // An operand was just completed, possibly negated
+        private boolean afterOperand;
+        private boolean negated;
+        // Index read so far of an x0, x1, ... variable, -1 outside one
+        private int index = -1;
+        private boolean digits;
+
+        Parser(int number) {
+            this.number = number;
+        }
+
+        void accept(char ch) {
+            position++;
+            if (index >= 0) {
+                if (ch >= '0' && ch <= '9') {
+                    index = index * 10 + (ch - '0');
+                    if (index >= number) {
+                        throw new IllegalArgumentException(
+                                "unknown variable at " + position);
+                    }
+                    digits = true;
+                    return;
+                }
+                if (!digits) {
+                    throw new IllegalArgumentException(
+                            "missing index after x at " + position);
+                }
+                pushVariable(index);
+                index = -1;
+            }
+            if (ch <= 32) {
+                return;
+            }
+            if (afterOperand) {
+                if (ch == '\'') {
+                    if (negated) {
+                        throw error(ch);
+                    }
+                    operands[operandTop] = builder.not(
+                            operands[operandTop]);
+                    negated = true;
+                }
+                else if (ch == ')') {
+                    while (operatorTop >= 0 && operators[operatorTop] != '(') {
+                        operandTop = builder.reduce(operands, operandTop,
+                                operators[operatorTop--]);
+                    }
+                    if (operatorTop < 0) {
+                        throw new IllegalArgumentException(
+                                "unmatched ')' at " + position);
+                    }
+                    operatorTop--;
+                    negated = false;
+                }
+                else if (ch == '.' || ch == '+') {
+                    // '.' only pops '.', '+' pops both
+                    while (operatorTop >= 0 && operators[operatorTop] != '('
+                            && (ch == '+' || operators[operatorTop] == '.')) {
+                        operandTop = builder.reduce(operands, operandTop,
+                                operators[operatorTop--]);
+                    }
+                    pushOperator(ch);
+                    afterOperand = false;
+                }
+                else {
+                    throw error(ch);
+                }
+            }
+            else if (ch == '(') {
+                pushOperator(ch);
+            }
+            else if (ch >= 'A' && ch <= 'Z') {
+                if (ch - 'A' >= number) {
+                    throw new IllegalArgumentException(
+                            "unknown variable at " + position);
+                }
+                pushVariable(ch - 'A');
+            }
+            else if (ch == 'x') {
+                index = 0;
+                digits = false;
+            }
+            else {
+                throw error(ch);
+            }
+        }
+
+        Expression finish() {
+            accept(' ');
+            if (!afterOperand) {
+                throw new IllegalArgumentException(operandTop < 0
+                        ? "empty expression" : "missing operand at end");
+            }
+            while (operatorTop >= 0) {
+                if (operators[operatorTop] == '(') {
+                    throw new IllegalArgumentException("unmatched '('");
+                }
+                operandTop = builder.reduce(operands, operandTop,
+                        operators[operatorTop--]);
+            }
+            return new Expression(number, builder.emit(operands[0]));
+        }
+
+        private void pushVariable(int variable) {
+            if (++operandTop == operands.length) {
+                operands = Arrays.copyOf(operands, 2 * operands.length);
+            }
+            operands[operandTop] = builder.variable(number - 1 - variable);
+            afterOperand = true;
+            negated = false;
+        }
+
+        private void pushOperator(char ch) {
+            if (++operatorTop == operators.length) {
+                operators = Arrays.copyOf(operators, 2 * operators.length);
+            }
+            operators[operatorTop] = ch;
+        }
+
+        private IllegalArgumentException error(char ch) {
+            return new IllegalArgumentException(
+                    "unexpected '" + ch + "' at " + position);
+        }
+    }
+}
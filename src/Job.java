@@ -0,0 +1,284 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One function to minimize: the number of variables, the expression
+ * and an optional don't-care set.
+ */
+public class Job {
+    /**
+     * How the function is written.
+     */
+    public enum Input {
+        /** An expression such as "A.B + C'". */
+        EXPRESSION,
+        /** Minterm numbers such as "1,5,7". */
+        MINTERMS,
+        /** Cubes such as "1-0-, 0-11". */
+        CUBES,
+        /**
+         * Path of a file holding an expression, such as a large sum of
+         * products dump, which is parsed as it is read.
+         */
+        FILE
+    }
+
+    private final String id;
+    private final int number;
+    private final String expression;
+    private String dcExpression;
+    private long[] dcMinterms = new long[0];
+    private Input input = Input.EXPRESSION;
+
+    public Job(String id, int number, String expression) {
+        this.id = id;
+        this.number = number;
+        this.expression = expression;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
+    /**
+     * Returns the function, written as the input type says.
+     */
+    public String getExpression() {
+        return expression;
+    }
+
+    public Input getInput() {
+        return input;
+    }
+
+    public void setInput(Input input) {
+        this.input = input;
+    }
+
+    public String getDcExpression() {
+        return dcExpression;
+    }
+
+    public void setDcExpression(String dcExpression) {
+        this.dcExpression = dcExpression;
+    }
+
+    public long[] getDcMinterms() {
+        return dcMinterms;
+    }
+
+    public void setDcMinterms(long[] dcMinterms) {
+        this.dcMinterms = dcMinterms;
+    }
+
+    /**
+     * Parses a comma separated minterm list such as "1,5,7". A blank
+     * list has no minterms.
+     *
+     * @param list The list
+     * @return The minterm numbers
+     * @throws NumberFormatException if an entry is not a number
+     */
+    public static long[] parseMinterms(String list) {
+        if (list.trim().isEmpty()) {
+            return new long[0];
+        }
+        String[] parts = list.split(",");
+        long[] minterms = new long[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            minterms[i] = Long.parseLong(parts[i].trim());
+        }
+        return minterms;
+    }
+
+    /**
+     * Parses a cube list such as "1-0-, 0-11", separated by commas or
+     * white space.
+     *
+     * @param list The list
+     * @param number Number of variables of every cube
+     * @return The cubes
+     * @throws IllegalArgumentException if a cube is malformed
+     */
+    public static List<Cube> parseCubes(String list, int number) {
+        List<Cube> cubes = new ArrayList<>();
+        for (String part : list.split("[,\\s]+")) {
+            if (part.isEmpty()) {
+                continue;
+            }
+            if (part.length() != number) {
+                throw new IllegalArgumentException("invalid cube: " + part);
+            }
+            cubes.add(Cube.parse(part));
+        }
+        return cubes;
+    }
+
+    /**
+     * Parses a batch line, either "number expression" or a JSON object
+     * such as {"id": "f1", "variables": 4, "expression": "A.B",
+     * "dc": "C.D", "dcMinterms": "1,2"}. The key "minterms", "cubes"
+     * or "file" may take the place of "expression".
+     *
+     * @param line The line
+     * @param lineNumber Used as the id when the line has none
+     * @return The job
+     * @throws IllegalArgumentException if the line is malformed
+     */
+    public static Job parse(String line, long lineNumber) {
+        line = line.trim();
+        if (!line.startsWith("{")) {
+            int space = 0;
+            while (space < line.length() && line.charAt(space) > 32) {
+                space++;
+            }
+            return new Job(String.valueOf(lineNumber),
+                    parseNumber(line.substring(0, space)),
+                    line.substring(space).trim());
+        }
+        String id = String.valueOf(lineNumber);
+        String number = null;
+        String expression = null;
+        String dc = null;
+        String dcMinterms = null;
+        Input input = Input.EXPRESSION;
+        // Flat object of string and number values
+        int i = 1;
+        while (true) {
+            i = skip(line, i);
+            if (line.charAt(i) == '}') {
+                break;
+            }
+            if (line.charAt(i) == ',') {
+                i++;
+                continue;
+            }
+            int end = string(line, i);
+            String key = unescape(line.substring(i + 1, end - 1));
+            i = skip(line, end);
+            if (line.charAt(i) != ':') {
+                throw new IllegalArgumentException("expected ':' at " + i);
+            }
+            i = skip(line, i + 1);
+            String value;
+            if (line.charAt(i) == '"') {
+                end = string(line, i);
+                value = unescape(line.substring(i + 1, end - 1));
+            }
+            else {
+                end = i;
+                while (end < line.length() && ",} \t".indexOf(
+                        line.charAt(end)) < 0) {
+                    end++;
+                }
+                value = line.substring(i, end);
+            }
+            i = end;
+            switch (key) {
+                case "id":
+                    id = value;
+                    break;
+                case "variables":
+                    number = value;
+                    break;
+                case "expression":
+                    expression = value;
+                    break;
+                case "minterms":
+                    expression = value;
+                    input = Input.MINTERMS;
+                    break;
+                case "cubes":
+                    expression = value;
+                    input = Input.CUBES;
+                    break;
+                case "file":
+                    expression = value;
+                    input = Input.FILE;
+                    break;
+                case "dc":
+                    dc = value;
+                    break;
+                case "dcMinterms":
+                    dcMinterms = value;
+                    break;
+                default:
+                    break;
+            }
+        }
+        if (number == null || expression == null) {
+            throw new IllegalArgumentException(
+                    "missing variables or expression");
+        }
+        Job job = new Job(id, parseNumber(number), expression);
+        job.setInput(input);
+        job.setDcExpression(dc);
+        if (dcMinterms != null && !dcMinterms.isEmpty()) {
+            job.setDcMinterms(parseMinterms(dcMinterms));
+        }
+        return job;
+    }
+
+    private static int parseNumber(String number) {
+        try {
+            return Integer.parseInt(number);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid number");
+        }
+    }
+
+    private static int skip(String s, int i) {
+        while (i < s.length() && s.charAt(i) <= 32) {
+            i++;
+        }
+        if (i == s.length()) {
+            throw new IllegalArgumentException("unexpected end of line");
+        }
+        return i;
+    }
+
+    /**
+     * Finds the end of the JSON string starting at i.
+     *
+     * @return Index after the closing quote
+     */
+    private static int string(String s, int i) {
+        if (s.charAt(i) != '"') {
+            throw new IllegalArgumentException("expected '\"' at " + i);
+        }
+        for (int j = i + 1; j < s.length(); j++) {
+            if (s.charAt(j) == '\\') {
+                j++;
+            }
+            else if (s.charAt(j) == '"') {
+                return j + 1;
+            }
+        }
+        throw new IllegalArgumentException("unterminated string");
+    }
+
+    private static String unescape(String s) {
+        if (s.indexOf('\\') < 0) {
+            return s;
+        }
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            if (ch == '\\' && i + 1 < s.length()) {
+                ch = s.charAt(++i);
+                if (ch == 'n') {
+                    ch = '\n';
+                }
+                else if (ch == 't') {
+                    ch = '\t';
+                }
+            }
+            sb.append(ch);
+        }
+        return sb.toString();
+    }
+}
@@ -1,9 +1,18 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 /**
  * This class implements the Quine-McCluskey algorithm
  * for simplifying boolean expressions.
  */
 public class Main {
+    // Columns with fewer cubes than this are merged serially
+    static final int PARALLEL_THRESHOLD = 4096;
+    // Number of cubes of a group merged by one task
+    static final int MERGE_BLOCK = 1024;
 
     /**
      * Converts an integer to its binary representation
@@ -45,93 +54,11 @@ public class Main {
         }
     }
 
-    /**
-     * Validates a boolean expression string based on syntax rules
-     *
-     * @param input The expression string to validate
-     * @param number Number of allowed variables (for A-Z range check)
-     * @return true if valid expression, false otherwise
-     */
-    public static boolean checkValidation(String input, int number) {
-        char ch;
-        boolean isParentheses = true;    // Currently processing parentheses?
-        boolean operand = false;    // Previous token was an operand?
-        boolean operator = false;     // Previous token was an operator?
-        boolean complete = false;    // NOT operator (') completed?
-        int parentheses = 0;    // Parentheses counter for balance check
-        for (int i = 0; i < input.length(); i++) {
-            ch = input.charAt(i);
-            // Skip whitespace characters
-            if (ch <= 32) {
-                continue;
-            }
-            // Handle '(' character
-            if (ch == '(') {
-                isParentheses = true;
-                operator = false;
-                complete = false;
-                if(operand){
-                    return false;
-                }
-                parentheses++;
-            }
-            // Handle ')' character
-            else if (ch == ')') {
-                operand = true;
-                complete = false;
-                if(operator){
-                    return false;
-                }
-                parentheses--;
-                if (parentheses == -1) {    //Unmatched closing parenthesis
-                    return false;
-                }
-            }
-            // Handle OR (+) and AND (.) operators
-            else if (ch == '+' || ch == '.') {
-                if(isParentheses){
-                    return false;
-                }
-                complete = false;
-                if(operator){
-                    return false;
-                }
-                operand = false;
-                operator = true;
-                if(i == input.length() - 1) {
-                    // Operator cannot be last character
-                    return false;
-                }
-            }
-            // Handle variable operands (A-Z)
-            else if (ch - 'A' >= 0 && ch - 'A' <= 25) {
-                if(ch - 'A' >= number){
-                    return false;
-                }
-                isParentheses = false;
-                complete = false;
-                if(operand){
-                    return false;
-                }
-                operator = false;
-                operand = true;
-            }
-            // Handle NOT operator (')
-            else if (ch == '\'') {
-                if(complete){
-                    return false;
-                }
-                complete = true;
-            }
-            else {
-                return false;
-            }
-        }
-        return true;
-    }
-
     /**
      * Evaluates boolean expression for a specific variable combination
+     * by interpreting the string. Expression replaced it everywhere;
+     * this and Stack stay only as the independent oracle
+     * ScalingHarness checks the truth tables against.
      *
      * @param expression Boolean expression to evaluate
      * @param binary Bit string representing variable values (e.g. "1010")
@@ -224,187 +151,291 @@ public class Main {
     }
 
     /**
-     * Checks if a 2D Minterm array is empty (all elements are null).
+     * Checks if every group is empty.
      *
-     * @param minterms The 2D array to check
-     * @return true if all elements are null, false otherwise
+     * @param groups Cube groups to check
+     * @return true if no group holds a cube, false otherwise
      */
-    public static boolean isEmpty(Minterm[][] minterms){
-        for (Minterm[] minterm : minterms) {
-            for (Minterm value : minterm) {
-                if (value != null) {
-                    return false;
-                }
+    public static boolean isEmpty(CubeList[] groups){
+        for (CubeList group : groups) {
+            if (!group.isEmpty()) {
+                return false;
             }
         }
         return true;
     }
 
     /**
-     * Finds Prime Implicants by comparing minterms
-     * with Hamming distance of 1.
+     * Merges the cubes left[from..to) with their partners in the next
+     * group. For every cube the partner is looked up by hash, one
+     * candidate per variable, instead of scanning the group.
      *
-     * @param minterms 2D array of minterms grouped by number of 1s
-     * @param PIs ArrayList to store found Prime Implicants
-     * @return New array of merged minterms
+     * @param left Group with i ones
+     * @param right Group with i + 1 ones
+     * @param from First cube of left to merge
+     * @param to End of the range in left
+     * @param out Receives the merged cubes
+     * @param leftMerged Marks the merged cubes of left
+     * @param rightMerged Marks the merged cubes of right
+     */
+    public static void mergeGroups(CubeList left, CubeList right,
+                                   int from, int to, CubeList out,
+                                   boolean[] leftMerged,
+                                   boolean[] rightMerged){
+        mergeGroups(left, right, from, to, out, leftMerged, rightMerged,
+                null);
+    }
+
+    /**
+     * Merges a range of cubes like mergeGroups(left, right, from, to,
+     * out, leftMerged, rightMerged), counting into a round as well.
+     *
+     * @param round Round of the tabulation, or null
      */
-    public static Minterm[][] foundPI(Minterm[][] minterms,
-                                      ArrayList<Minterm> PIs){
-        int n = 0;
-        String distance;
-        Minterm[][] newMinterms = new Minterm[minterms.length][100];
-        char[][] newMintermsCounter = new char[minterms.length][100];
-        // Compare each minterm with minterms in the next group
-        for (int i = 0; i < minterms.length - 1; i++) {
-            for (int j = 0; j < 100; j++) {
-                if(minterms[i][j] == null){
-                    break;
+    static void mergeGroups(CubeList left, CubeList right, int from,
+                            int to, CubeList out, boolean[] leftMerged,
+                            boolean[] rightMerged, Metrics.Round round){
+        int size = left.getSize();
+        int words = Cube.words(size);
+        long[] value = new long[words];
+        long[] mask = new long[words];
+        int k;
+        long comparisons = 0;
+        long merges = 0;
+        long duplicates = 0;
+        for (int j = from; j < to; j++) {
+            for (int w = 0; w < words; w++) {
+                value[w] = left.value(j, w);
+                mask[w] = left.mask(j, w);
+            }
+            for (int bit = size - 1; bit >= 0; bit--) {
+                int w = bit >>> 6;
+                long b = 1L << bit;
+                if(((value[w] | mask[w]) & b) != 0){
+                    continue;
                 }
-                for(int k = 0; k < 100; k++){
-                    if(i == minterms.length - 1){
-                        return newMinterms;
+                value[w] |= b;
+                k = right.indexOf(value, mask);
+                comparisons++;
+                value[w] &= ~b;
+                // The merged cube is an implicant of the common outputs
+                long tag = k == -1 ? 0 : left.getTag(j) & right.getTag(k);
+                if(tag != 0){
+                    // A cube is only replaced by a merge that keeps
+                    // all of its outputs
+                    if(tag == left.getTag(j)){
+                        leftMerged[j] = true;
                     }
-                    if(minterms[i+1][k] == null){
-                        break;
+                    if(tag == right.getTag(k)){
+                        rightMerged[k] = true;
                     }
-                    distance = minterms[i][j].distance(minterms[i+1][k]);
-                    if(distance != null){
-                        newMinterms[i][n] = new Minterm();
-                        newMintermsCounter[i][j] = '*';
-                        newMintermsCounter[i+1][k] = '*';
-                        newMinterms[i][n].setBinary(distance);
-                        newMinterms[i][n].setNumber
-                                (minterms[i][j].getNumber()
-                                + " " + minterms[i+1][k].getNumber());
-                        n++;
+                    mask[w] |= b;
+                    if(out.add(value, mask, tag) == -1){
+                        duplicates++;
                     }
+                    mask[w] &= ~b;
+                    merges++;
                 }
-                // If minterm wasn't merged with any other,
-                // it's a Prime Implicant
-                if(newMintermsCounter[i][j] != '*'){
-                    PIs.add(minterms[i][j]);
-                }
-            }
-            n = 0;
-            if(i == minterms.length - 2){
-                break;
             }
         }
-        // If no merges happened, add remaining minterms as PIs
-        if(isEmpty(newMinterms)){
-            for(int i = 0; i < minterms[0].length; i++){
-                if(minterms[minterms.length-1][i] == null){
-                    break;
-                }
-                newMinterms[0][n] = minterms[minterms.length-1][i];
-                n++;
-
-            }
-        }
-        return newMinterms;
+        Metrics.merged(round, comparisons, merges, duplicates);
     }
 
     /**
-     * Finds the index of a minterm with a specific number string.
+     * Finds Prime Implicants by merging cubes
+     * with Hamming distance of 1 (one column of the tabulation).
      *
-     * @param minterms Array of minterms to search
-     * @param s The number string to search for
-     * @return Index of the minterm or -1 if not found
+     * @param minterms Cubes grouped by number of 1s
+     * @param PIs ArrayList to store found Prime Implicants
+     * @return Merged cubes grouped by number of 1s, without duplicates
      */
-    public static int returnIndex(Minterm[] minterms, String s){
-        for(int i = 0; i < minterms.length; i++){
-            if(minterms[i].getNumber().equals(s)){
-                return i;
-            }
-        }
-        return -1;
+    public static CubeList[] foundPI(CubeList[] minterms,
+                                     ArrayList<Minterm> PIs){
+        return foundPI(minterms, PIs, null);
     }
 
     /**
-     * Checks if a column in the cover table has exactly one star.
+     * Finds Prime Implicants like foundPI(minterms, PIs), merging the
+     * group pairs, and blocks of large pairs, as fork/join tasks.
+     * Each task has its own output list and the lists are joined in
+     * serial order, so the result is identical to the serial one.
      *
-     * @param coverTable The cover table
-     * @param row The row to check
-     * @return The index of the row with the star,
-     * or -1 if multiple stars found
+     * @param minterms Cubes grouped by number of 1s
+     * @param PIs ArrayList to store found Prime Implicants
+     * @param pool Pool to merge in, or null to merge serially
+     * @return Merged cubes grouped by number of 1s, without duplicates
      */
-    public static int oneStarInRow(char[][] coverTable, int row){
-        int number = -1;
-        for (int i = 0; i < coverTable.length; i++) {
-            if (coverTable[i][row] == '*') {
-                if (number != -1) {
-                    return -1;
-                }
-                number = i;
-            }
+    public static CubeList[] foundPI(CubeList[] minterms,
+                                     ArrayList<Minterm> PIs,
+                                     ForkJoinPool pool){
+        boolean[][] merged = new boolean[minterms.length][];
+        CubeList[] newMinterms = new CubeList[minterms.length];
+        for (int i = 0; i < minterms.length; i++) {
+            merged[i] = new boolean[minterms[i].count()];
+            newMinterms[i] = new CubeList(minterms[i].getSize());
         }
-        return number;
+        foundPI(minterms, newMinterms, merged, PIs, pool);
+        return newMinterms;
     }
 
     /**
-     * Fills a row in the cover table with '-' to mark it as covered.
+     * Finds Prime Implicants like foundPI(minterms, PIs, pool), writing
+     * into caller-owned buffers so they can be reused between columns.
      *
-     * @param coverTable The cover table
-     * @param row The row to fill
+     * @param minterms Cubes grouped by number of 1s
+     * @param newMinterms Empty lists, one per group, for the merged
+     *                    cubes; a list may be replaced by another one
+     * @param merged Cleared marks, at least as long as each group
+     * @param PIs ArrayList to store found Prime Implicants
+     * @param pool Pool to merge in, or null to merge serially
      */
-    public static void fillRow(char[][] coverTable, int row){
-        for (int i = 0; i < coverTable.length; i++) {
-            coverTable[i][row] = '-';
-        }
+    public static void foundPI(CubeList[] minterms, CubeList[] newMinterms,
+                               boolean[][] merged, ArrayList<Minterm> PIs,
+                               ForkJoinPool pool){
+        foundPI(minterms, newMinterms, merged, PIs, pool, null);
     }
 
     /**
-     * Checks if the cover table is completely covered
-     * (all elements are '-').
+     * Finds Prime Implicants like foundPI(minterms, newMinterms, merged,
+     * PIs, pool) unless a budget runs out first. The budget is checked
+     * before each group pair, serially, or once before a parallel
+     * column, and counts the PIs and the cubes of both columns.
      *
-     * @param coverTable The cover table to check
-     * @return true if all elements are '-', false otherwise
+     * @param budget The budget, or null for none
+     * @return true if the column was merged, false if the budget ran
+     *         out, leaving newMinterms incomplete and no PI added
      */
-    public static boolean isFull(char[][] coverTable){
-        for (char[] chars : coverTable) {
-            for (char aChar : chars) {
-                if (aChar != '-') {
+    public static boolean foundPI(CubeList[] minterms,
+                                  CubeList[] newMinterms,
+                                  boolean[][] merged,
+                                  ArrayList<Minterm> PIs,
+                                  ForkJoinPool pool, Budget budget){
+        int total = 0;
+        for (CubeList group : minterms) {
+            total += group.count();
+        }
+        if(budget != null && budget.isExhausted(PIs.size() + total)){
+            return false;
+        }
+        int size = minterms[0].getSize();
+        Metrics.Round round = Metrics.startRound(column(minterms));
+        if(pool == null || pool.getParallelism() == 1
+                || total < PARALLEL_THRESHOLD){
+            long produced = 0;
+            for (int i = 0; i < minterms.length - 1; i++) {
+                if(budget != null && budget.isExhausted(
+                        PIs.size() + total + produced)){
+                    Metrics.endRound(round, size, total, 0);
                     return false;
                 }
+                mergeGroups(minterms[i], minterms[i + 1], 0,
+                        minterms[i].count(), newMinterms[i],
+                        merged[i], merged[i + 1], round);
+                produced += newMinterms[i].count();
+            }
+        }
+        else {
+            // One task per block of MERGE_BLOCK cubes of each left group
+            List<List<MergeTask>> blocks = new ArrayList<>();
+            List<MergeTask> tasks = new ArrayList<>();
+            for (int i = 0; i < minterms.length - 1; i++) {
+                List<MergeTask> pair = new ArrayList<>();
+                for (int from = 0; from < minterms[i].count();
+                     from += MERGE_BLOCK) {
+                    pair.add(new MergeTask(minterms[i], minterms[i + 1],
+                            from, Math.min(minterms[i].count(),
+                            from + MERGE_BLOCK), merged[i], merged[i + 1],
+                            round));
+                }
+                blocks.add(pair);
+                tasks.addAll(pair);
+            }
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(tasks);
+                }
+            });
+            for (int i = 0; i < minterms.length - 1; i++) {
+                List<MergeTask> pair = blocks.get(i);
+                if(pair.size() == 1){
+                    newMinterms[i] = pair.get(0).out;
+                    continue;
+                }
+                for (MergeTask task : pair) {
+                    newMinterms[i].addAll(task.out);
+                }
+            }
+        }
+        // Cubes that weren't merged with any other are Prime Implicants
+        int found = PIs.size();
+        for (int i = 0; i < minterms.length; i++) {
+            for (int j = 0; j < minterms[i].count(); j++) {
+                if(!merged[i][j]){
+                    Minterm PI = new Minterm();
+                    PI.setCube(minterms[i].get(j));
+                    PI.setOutputs(minterms[i].getTag(j));
+                    PIs.add(PI);
+                }
             }
         }
+        Metrics.add(Metrics.Counter.PRIME_IMPLICANTS, PIs.size() - found);
+        Metrics.endRound(round, size, total, PIs.size() - found);
         return true;
     }
 
     /**
-     * Helper method for generating
-     * all subsets of a list of integers.
-     *
-     * @param subsets List to store all subsets
-     * @param current Current subset being built
-     * @param start Starting index
-     * @param input Input list of integers
+     * Returns the column of the tabulation cubes are in, their number
+     * of dashes.
      */
-    public static void generateSubsets(List<List<Integer>> subsets,
-                                       List<Integer> current,
-                                       int start,
-                                       ArrayList<Integer> input){
-        subsets.add(new ArrayList<>(current));
-        for(int i = start; i < input.size(); i++){
-            current.add(input.get(i));
-            generateSubsets(subsets, current, i + 1, input);
-            current.remove(current.size() - 1);
+    private static int column(CubeList[] minterms){
+        for (CubeList group : minterms) {
+            if(group.count() > 0){
+                int dashes = 0;
+                for (int w = 0; w < Cube.words(group.getSize()); w++) {
+                    dashes += Long.bitCount(group.mask(0, w));
+                }
+                return dashes;
+            }
         }
+        return 0;
     }
 
     /**
-     * Generates all possible subsets of an input list.
-     *
-     * @param input The input list
-     * @return List of all subsets
+     * Merges one block of a group pair into its own output list.
+     * Marks are only ever set to true, so blocks can share them.
      */
-    public static List<List<Integer>> Subsets
-    (ArrayList<Integer> input){
-        List<List<Integer>> subsets = new ArrayList<>();
-        generateSubsets(subsets, new ArrayList<>(), 0, input);
-        return subsets;
-    }
+    private static class MergeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final CubeList left;
+        private final CubeList right;
+        private final int from;
+        private final int to;
+        private final boolean[] leftMerged;
+        private final boolean[] rightMerged;
+        private final Metrics.Round round;
+        private final CubeList out;
+
+        MergeTask(CubeList left, CubeList right, int from, int to,
+                  boolean[] leftMerged, boolean[] rightMerged,
+                  Metrics.Round round) {
+            this.left = left;
+            this.right = right;
+            this.from = from;
+            this.to = to;
+            this.leftMerged = leftMerged;
+            this.rightMerged = rightMerged;
+            this.round = round;
+            this.out = new CubeList(left.getSize());
+        }
 
+        @Override
+        protected void compute() {
+            mergeGroups(left, right, from, to, out,
+                    leftMerged, rightMerged, round);
+        }
+    }
 
     /**
      * Finds Essential Prime Implicants from
@@ -417,82 +448,103 @@ public class Main {
     public static ArrayList<Minterm> foundEPI(
             ArrayList<Minterm> PIs
             , Minterm[] minterms){
+        return foundEPI(PIs, minterms, CoverSolver.Cost.CUBES);
+    }
+
+    /**
+     * Finds Essential Prime Implicants from the list of Prime
+     * Implicants and completes them to a cover of minimum cost.
+     *
+     * @param PIs List of Prime Implicants
+     * @param minterms Array of original minterms
+     * @param cost Cost of a PI in the cover
+     * @return List of Essential Prime Implicants
+     */
+    public static ArrayList<Minterm> foundEPI(
+            ArrayList<Minterm> PIs
+            , Minterm[] minterms, CoverSolver.Cost cost){
+        long[] numbers = new long[minterms.length];
+        for (int j = 0; j < minterms.length; j++) {
+            numbers[j] = minterms[j].getCube().firstMinterm();
+        }
+        return foundEPI(PIs, numbers, cost);
+    }
+
+    /**
+     * Finds Essential Prime Implicants like foundEPI(PIs, minterms,
+     * cost), with the minterms given by number.
+     *
+     * @param PIs List of Prime Implicants
+     * @param numbers Sorted numbers of the original minterms
+     * @param cost Cost of a PI in the cover
+     * @return List of Essential Prime Implicants
+     */
+    public static ArrayList<Minterm> foundEPI(
+            ArrayList<Minterm> PIs
+            , long[] numbers, CoverSolver.Cost cost){
+        return foundEPI(PIs, numbers, cost, null);
+    }
+
+    /**
+     * Finds Essential Prime Implicants like foundEPI(PIs, numbers,
+     * cost), stopping the search for the rest of the cover when a
+     * budget runs out. The cover is then the essential PIs and the
+     * best completion found, and the budget gets a lower bound.
+     *
+     * @param PIs List of Prime Implicants
+     * @param numbers Sorted numbers of the original minterms
+     * @param cost Cost of a PI in the cover
+     * @param budget The budget, or null for none
+     * @return List of Essential Prime Implicants
+     */
+    public static ArrayList<Minterm> foundEPI(
+            ArrayList<Minterm> PIs
+            , long[] numbers, CoverSolver.Cost cost, Budget budget){
         ArrayList <Minterm> EPIs = new ArrayList<>();
-        char[][] coverTable = new char[PIs.size()][minterms.length];
-        String[][] PINums = new String[PIs.size()][];
-        // Build the cover table
+        // Build the cover table from which minterms each PI contains
+        CoverTable coverTable = new CoverTable(PIs.size(), numbers);
         for (int i = 0; i < PIs.size(); i++) {
-            PINums[i] = (PIs.get(i).getNumber().split(" "));
-            for(int j = 0; j < PINums[i].length ; j++){
-                coverTable[i][returnIndex(minterms,PINums[i][j])]
-                        = '*';
-            }
-        }
-        int[] columns = new int[coverTable.length];
-        int column, index;
-        // Find columns with exactly one star (essential PIs)
-        for(int j = 0; j < minterms.length; j++){
-            column = oneStarInRow(coverTable, j);
-            if(column != -1){
-                columns[column] = -1;
-                EPIs.add(PIs.get(column));
-                Arrays.fill(coverTable[column], '-');
-                for(int k = 0; k < PINums[column].length; k++){
-                    index = returnIndex(minterms,PINums[column][k]);
-                    fillRow(coverTable, index);
+            Cube cube = PIs.get(i).getCube();
+            coverTable.cover(i, cube.getValue(0), cube.getMask(0));
+        }
+        long[] rows = CoverTable.all(PIs.size());
+        long[] columns = CoverTable.all(numbers.length);
+        // Find columns covered by exactly one PI (essential PIs)
+        for (int j = CoverTable.nextBit(columns, 0); j >= 0;
+             j = CoverTable.nextBit(columns, j + 1)) {
+            long[] covering = coverTable.rowsOf(j);
+            if(CoverTable.intersection(covering, rows) == 1){
+                int row = CoverTable.nextBit(covering, 0);
+                EPIs.add(PIs.get(row));
+                rows[row >>> 6] &= ~(1L << row);
+                long[] covered = coverTable.columnsOf(row);
+                for (int w = 0; w < columns.length; w++) {
+                    columns[w] &= ~covered[w];
                 }
             }
         }
-        if(isFull(coverTable)){
+        Metrics.add(Metrics.Counter.COVER_ROWS, PIs.size());
+        Metrics.add(Metrics.Counter.COVER_COLUMNS, numbers.length);
+        Metrics.add(Metrics.Counter.ESSENTIALS, EPIs.size());
+        if(CoverTable.isEmpty(columns)){
             return EPIs;
         }
-        // Find remaining PIs needed to cover the function
-        ArrayList<Integer> indexOfColumns = new ArrayList<>();
-        for (int i = 0; i < columns.length; i++) {
-            if(columns[i] != -1){
-                indexOfColumns.add(i);
-            }
-        }
-        List<List<Integer>> subsets = Subsets(indexOfColumns);
-        int check = 0;
-        boolean flag = false;
-        List<List<Integer>> coverableSubsets = new ArrayList<>();
-        // Find subsets that cover all remaining minterms
-        for (List<Integer> subset : subsets) {
-            for (int j = 0; j < minterms.length; j++) {
-                for (Integer integer : subset) {
-                    if (coverTable[integer][j] == '-'
-                            || coverTable[integer][j] == '*') {
-                        flag = true;
-                        break;
-                    }
-                }
-                if(flag){
-                    flag = false;
-                    check++;
-                }
-                else{
-                    break;
-                }
-            }
-            if (check == minterms.length) {
-                coverableSubsets.add(subset);
-            }
-            check = 0;
+        // Solve the cover problem left over by the remaining PIs
+        int[] rowCost = new int[PIs.size()];
+        for (int i = 0; i < rowCost.length; i++) {
+            rowCost[i] = cost.of(PIs.get(i).getCube());
         }
-        // Find the smallest subset that covers all
-        // remaining minterms
-        int min = Integer.MAX_VALUE;
-        List<Integer> EPI = new ArrayList<>();
-        for (List<Integer> coverableSubset : coverableSubsets)
-        {
-            if (coverableSubset.size() < min) {
-                min = coverableSubset.size();
-                EPI = coverableSubset;
-            }
+        int essentials = 0;
+        for (Minterm PI : EPIs) {
+            essentials += cost.of(PI.getCube());
         }
-        for (Integer integer : EPI) {
-            EPIs.add(PIs.get(integer));
+        CoverSolver solver = new CoverSolver(coverTable, rowCost, budget);
+        int[] EPI = solver.solve(rows, columns);
+        for (int i : EPI) {
+            EPIs.add(PIs.get(i));
+        }
+        if(!solver.isOptimal()){
+            budget.approximate(essentials + solver.getLowerBound());
         }
         return EPIs;
     }
@@ -504,112 +556,571 @@ public class Main {
      */
     public static void printAnswer
     (ArrayList<Minterm> EPIs){
-        int i;
-        String s;
-        for (int j = 0; j < EPIs.size(); j++) {
-            i = 0;
-            s = EPIs.get(j).getBinary();
-            for(; i < s.length(); i++){
-                if(s.charAt(i) == '1'){
-                    System.out.print((char)('A' + i));
+        List<Cube> cubes = new ArrayList<>();
+        for (Minterm EPI : EPIs) {
+            cubes.add(EPI.getCube());
+        }
+        printAnswer(cubes);
+    }
+
+    /**
+     * Prints the final simplified boolean expression.
+     *
+     * @param cubes Product terms of the answer
+     */
+    public static void printAnswer(List<Cube> cubes){
+        System.out.print(formatAnswer(cubes));
+    }
+
+    /**
+     * Builds the simplified boolean expression, "0" for no cubes
+     * and "1" for the universal cube. Functions of more than 26
+     * variables name them x0, x1, ... with '.' between literals.
+     *
+     * @param cubes Product terms of the answer
+     * @return The expression
+     */
+    public static String formatAnswer(List<Cube> cubes){
+        if(cubes.isEmpty()){
+            return "0";
+        }
+        if(cubes.get(0).isUniversal()){
+            return "1";
+        }
+        StringBuilder sb = new StringBuilder();
+        Cube s;
+        for (int j = 0; j < cubes.size(); j++) {
+            s = cubes.get(j);
+            boolean indexed = s.getSize() > 26;
+            boolean first = true;
+            for(int i = 0; i < s.getSize(); i++){
+                if(s.charAt(i) == '-'){
+                    continue;
+                }
+                if(indexed){
+                    sb.append(first ? "x" : ".x").append(i);
+                }
+                else {
+                    sb.append((char)('A' + i));
                 }
                 if(s.charAt(i) == '0'){
-                    System.out.print((char)('A' + i));
-                    System.out.print('\'');
+                    sb.append('\'');
                 }
+                first = false;
             }
-            if(j == EPIs.size() - 1){
+            if(j == cubes.size() - 1){
                 break;
             }
-            System.out.print(" + ");
+            sb.append(" + ");
         }
+        return sb.toString();
+    }
+
+    /**
+     * Chooses PIs for several outputs at once. The columns are
+     * (output, minterm) pairs, so a PI that serves several outputs
+     * is paid for only once.
+     *
+     * @param PIs Prime Implicants tagged with their outputs
+     * @param onSets ON-set of every output
+     * @param cost Cost of a PI in the cover
+     * @return The PIs of every output
+     */
+    public static List<ArrayList<Minterm>> foundSharedEPI(
+            ArrayList<Minterm> PIs, TruthTable[] onSets,
+            CoverSolver.Cost cost){
+        return foundSharedEPI(PIs, onSets, cost, null);
     }
 
-    public static void main(String[] args) {
+    /**
+     * Chooses PIs for several outputs at once like foundSharedEPI(PIs,
+     * onSets, cost), within a budget.
+     *
+     * @param budget The budget, or null for none
+     * @return The PIs of every output
+     */
+    public static List<ArrayList<Minterm>> foundSharedEPI(
+            ArrayList<Minterm> PIs, TruthTable[] onSets,
+            CoverSolver.Cost cost, Budget budget){
+        int number = onSets[0].getNumber();
+        // Column keys are (output << number) | minterm, sorted
+        int[] start = new int[onSets.length + 1];
+        for (int o = 0; o < onSets.length; o++) {
+            start[o + 1] = start[o] + (int) onSets[o].cardinality();
+        }
+        long[] keys = new long[start[onSets.length]];
+        for (int o = 0; o < onSets.length; o++) {
+            int c = start[o];
+            for (long m = onSets[o].nextMinterm(0); m >= 0;
+                 m = onSets[o].nextMinterm(m + 1)) {
+                keys[c++] = ((long) o << number) | m;
+            }
+        }
+        CoverTable coverTable = new CoverTable(PIs.size(), keys);
+        int[] rowCost = new int[PIs.size()];
+        for (int i = 0; i < PIs.size(); i++) {
+            Minterm PI = PIs.get(i);
+            rowCost[i] = cost.of(PI.getCube());
+            for (int o = 0; o < onSets.length; o++) {
+                if((PI.getOutputs() >>> o & 1) != 0){
+                    coverTable.cover(i, ((long) o << number)
+                            | PI.getCube().getValue(0),
+                            PI.getCube().getMask(0));
+                }
+            }
+        }
+        CoverSolver solver = new CoverSolver(coverTable, rowCost, budget);
+        int[] chosen = solver.solve();
+        if(!solver.isOptimal()){
+            budget.approximate(solver.getLowerBound());
+        }
+        // Give every output the chosen PIs it still needs
+        int[] covering = new int[keys.length];
+        for (int i : chosen) {
+            long[] columns = coverTable.columnsOf(i);
+            for (int c = CoverTable.nextBit(columns, 0); c >= 0;
+                 c = CoverTable.nextBit(columns, c + 1)) {
+                covering[c]++;
+            }
+        }
+        List<ArrayList<Minterm>> EPIs = new ArrayList<>();
+        for (int o = 0; o < onSets.length; o++) {
+            ArrayList<Minterm> EPI = new ArrayList<>();
+            for (int i : chosen) {
+                long[] columns = coverTable.columnsOf(i);
+                int c = CoverTable.nextBit(columns, start[o]);
+                if(c == -1 || c >= start[o + 1]){
+                    continue;
+                }
+                boolean needed = false;
+                for (; c >= 0 && c < start[o + 1];
+                     c = CoverTable.nextBit(columns, c + 1)) {
+                    needed |= covering[c] == 1;
+                }
+                if(needed){
+                    EPI.add(PIs.get(i));
+                    continue;
+                }
+                // Covered by the other PIs of this output
+                for (c = CoverTable.nextBit(columns, start[o]);
+                     c >= 0 && c < start[o + 1];
+                     c = CoverTable.nextBit(columns, c + 1)) {
+                    covering[c]--;
+                }
+            }
+            EPIs.add(EPI);
+        }
+        return EPIs;
+    }
+
+    /**
+     * Minimizes several functions over the same variables together:
+     * the prime implicants are generated once with output tags and a
+     * single cover table is solved for all outputs.
+     *
+     * @param programs The compiled expressions, one per output
+     * @param dontCares Don't-care set shared by all outputs
+     * @param pool Pool to merge in, or null to merge serially
+     * @param cost Cost of a PI in the cover
+     */
+    public static void minimizeOutputs(Expression[] programs,
+                                       TruthTable dontCares,
+                                       ForkJoinPool pool,
+                                       CoverSolver.Cost cost){
+        TruthTable[] onSets = new TruthTable[programs.length];
+        TruthTable[] dcSets = new TruthTable[programs.length];
+        for (int o = 0; o < programs.length; o++) {
+            onSets[o] = TruthTable.of(programs[o]);
+            dcSets[o] = dontCares;
+        }
+        List<List<Cube>> covers = minimizeShared(onSets, dcSets, pool,
+                cost, null);
+        for (int o = 0; o < programs.length; o++) {
+            System.out.println("Answer " + (o + 1) + ": "
+                    + formatAnswer(covers.get(o)));
+        }
+    }
+
+    /**
+     * Minimizes several functions over the same variables together,
+     * each with its own don't-cares: the prime implicants are
+     * generated once with output tags and a single cover table is
+     * solved for all outputs. If the budget runs out during the
+     * tabulation, the cubes of the column are taken as PIs.
+     *
+     * @param onSets ON-set of every output
+     * @param dontCares Don't-care set of every output
+     * @param pool Pool to merge in, or null to merge serially
+     * @param cost Cost of a PI in the cover
+     * @param budget The budget, or null for none
+     * @return The cover of every output, no cubes for 0 and the
+     *         universal cube for 1
+     */
+    static List<List<Cube>> minimizeShared(TruthTable[] onSets,
+                                           TruthTable[] dontCares,
+                                           ForkJoinPool pool,
+                                           CoverSolver.Cost cost,
+                                           Budget budget){
+        int number = onSets[0].getNumber();
+        TruthTable[] careSets = new TruthTable[onSets.length];
+        TruthTable care = new TruthTable(number);
+        for (int o = 0; o < onSets.length; o++) {
+            careSets[o] = new TruthTable(number);
+            careSets[o].or(onSets[o]);
+            careSets[o].or(dontCares[o]);
+            care.or(careSets[o]);
+        }
+        // Group minterms by number of 1s, tagged with their outputs
+        CubeList[] mintermGroups = new CubeList[number + 1];
+        for (int i = 0; i < mintermGroups.length; i++) {
+            mintermGroups[i] = new CubeList(number);
+        }
+        long[] value = new long[Cube.words(number)];
+        long[] mask = new long[value.length];
+        for (long m = care.nextMinterm(0); m >= 0;
+             m = care.nextMinterm(m + 1)) {
+            long tag = 0;
+            for (int o = 0; o < onSets.length; o++) {
+                if(careSets[o].get(m)){
+                    tag |= 1L << o;
+                }
+            }
+            value[0] = m;
+            mintermGroups[Long.bitCount(m)]
+                    .add(value, mask, tag);
+        }
+        ArrayList<Minterm> PIs = new ArrayList<>();
+        CubeList[] temp = mintermGroups;
+        while (!isEmpty(temp)) {
+            boolean[][] merged = new boolean[temp.length][];
+            CubeList[] next = new CubeList[temp.length];
+            for (int i = 0; i < temp.length; i++) {
+                merged[i] = new boolean[temp[i].count()];
+                next[i] = new CubeList(number);
+            }
+            if(!foundPI(temp, next, merged, PIs, pool, budget)){
+                for (CubeList group : temp) {
+                    for (int j = 0; j < group.count(); j++) {
+                        Minterm implicant = new Minterm();
+                        implicant.setCube(group.get(j));
+                        implicant.setOutputs(group.getTag(j));
+                        PIs.add(implicant);
+                    }
+                }
+                budget.approximate(0);
+                break;
+            }
+            temp = next;
+        }
+        List<ArrayList<Minterm>> EPIs = foundSharedEPI(PIs, onSets, cost,
+                budget);
+        List<List<Cube>> covers = new ArrayList<>();
+        for (int o = 0; o < onSets.length; o++) {
+            List<Cube> cover = new ArrayList<>();
+            if(careSets[o].isFull() && onSets[o].cardinality() > 0){
+                cover.add(Cube.universal(number));
+            }
+            else if(onSets[o].cardinality() > 0){
+                for (Minterm EPI : EPIs.get(o)) {
+                    cover.add(EPI.getCube());
+                }
+            }
+            covers.add(cover);
+        }
+        return covers;
+    }
+
+    /**
+     * Minimizes a function with the exact Quine-McCluskey engine.
+     *
+     * @param table ON-set of the function
+     * @param dontCares Don't-care set, may overlap the ON-set
+     * @param pool Pool to merge in, or null to merge serially
+     * @param cost Cost of a PI in the cover
+     * @return The chosen PIs, no cubes for 0 and the universal cube for 1
+     */
+    public static List<Cube> minimize(TruthTable table,
+                                      TruthTable dontCares,
+                                      ForkJoinPool pool,
+                                      CoverSolver.Cost cost){
+        return new Minimizer(null, cost, pool)
+                .minimize(table, dontCares).getCubes();
+    }
+
+    /**
+     * Minimizes one job and formats the answer.
+     *
+     * @param job The function to minimize
+     * @param espresso Espresso engine to use, or null for the exact one
+     * @param cost Cost of a PI in the cover
+     * @param pool Pool to merge in, or null to merge serially
+     * @return The simplified expression
+     * @throws IllegalArgumentException if the job is invalid
+     */
+    public static String solve(Job job, Espresso espresso,
+                               CoverSolver.Cost cost, ForkJoinPool pool){
+        return new Minimizer(espresso, cost, pool).minimize(job).toString();
+    }
+
+    /**
+     * Minimizes the outputs of a PLA and writes the covers as a PLA,
+     * sharing the rows of cubes that several outputs use. The exact
+     * engine chooses the PIs of small PLAs for all outputs at once.
+     *
+     * @param in PLA file, or "-" for standard input
+     * @param out File to write, or null for standard output
+     * @param minimizer Minimizer to use
+     * @throws IllegalArgumentException if the PLA is invalid
+     */
+    static void minimizePla(String in, String out, Minimizer minimizer)
+            throws IOException {
+        Pla function = in.equals("-") ? Pla.read(System.in)
+                : Pla.read(Paths.get(in));
+        List<List<Cube>> on = new ArrayList<>();
+        List<List<Cube>> dc = new ArrayList<>();
+        for (int o = 0; o < function.getOutputs(); o++) {
+            on.add(function.getOnSet(o));
+            dc.add(function.getDontCares(o));
+        }
+        List<List<Cube>> covers = minimizer.minimizeOutputs(
+                function.getInputs(), on, dc);
+        Writer writer = out == null ? new OutputStreamWriter(System.out)
+                : Files.newBufferedWriter(Paths.get(out));
+        Pla.write(writer, function.getInputs(), covers,
+                function.getInputLabels(), function.getOutputLabels());
+        if (out != null) {
+            writer.close();
+        }
+    }
+
+    public static void main(String[] args) throws IOException,
+            InterruptedException {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        CoverSolver.Cost cost = CoverSolver.Cost.CUBES;
+        String engine = "qm";
+        int iterations = 20;
+        int leaf = 8;
+        long timeLimit = 0;
+        long deadline = 0;
+        long maxCubes = 0;
+        String dcExpression = null;
+        String dcMinterms = null;
+        int outputs = 1;
+        String batch = null;
+        String pla = null;
+        String plaOut = null;
+        int workers = Runtime.getRuntime().availableProcessors();
+        boolean ordered = true;
+        boolean metrics = false;
+        int cacheSize = 0;
+        int canonical = 5;
+        Job.Input input = Job.Input.EXPRESSION;
+        for (String arg : args) {
+            if (arg.equals("--batch")) {
+                batch = "-";
+            }
+            if (arg.startsWith("--batch=")) {
+                batch = arg.substring("--batch=".length());
+            }
+            if (arg.startsWith("--pla=")) {
+                pla = arg.substring("--pla=".length());
+            }
+            if (arg.startsWith("--pla-out=")) {
+                plaOut = arg.substring("--pla-out=".length());
+            }
+            if (arg.startsWith("--workers=")) {
+                workers = Integer.parseInt(
+                        arg.substring("--workers=".length()));
+            }
+            if (arg.equals("--metrics")) {
+                metrics = true;
+            }
+            if (arg.startsWith("--cache=")) {
+                cacheSize = Integer.parseInt(
+                        arg.substring("--cache=".length()));
+            }
+            if (arg.startsWith("--canonical=")) {
+                canonical = Integer.parseInt(
+                        arg.substring("--canonical=".length()));
+            }
+            if (arg.equals("--unordered")) {
+                ordered = false;
+            }
+            if (arg.startsWith("--outputs=")) {
+                outputs = Integer.parseInt(
+                        arg.substring("--outputs=".length()));
+            }
+            if (arg.startsWith("--input=")) {
+                input = Job.Input.valueOf(
+                        arg.substring("--input=".length()).toUpperCase());
+            }
+            if (arg.startsWith("--dc=")) {
+                dcExpression = arg.substring("--dc=".length());
+            }
+            if (arg.startsWith("--dc-minterms=")) {
+                dcMinterms = arg.substring("--dc-minterms=".length());
+            }
+            if (arg.startsWith("--engine=")) {
+                engine = arg.substring("--engine=".length());
+            }
+            if (arg.startsWith("--leaf=")) {
+                leaf = Integer.parseInt(arg.substring("--leaf=".length()));
+            }
+            if (arg.startsWith("--iterations=")) {
+                iterations = Integer.parseInt(
+                        arg.substring("--iterations=".length()));
+            }
+            if (arg.startsWith("--time-limit=")) {
+                timeLimit = Long.parseLong(arg.substring(
+                        "--time-limit=".length())) * 1_000_000L;
+            }
+            if (arg.startsWith("--deadline=")) {
+                deadline = Long.parseLong(arg.substring(
+                        "--deadline=".length())) * 1_000_000L;
+            }
+            if (arg.startsWith("--max-cubes=")) {
+                maxCubes = Long.parseLong(
+                        arg.substring("--max-cubes=".length()));
+            }
+            if (arg.startsWith("--cost=")) {
+                cost = CoverSolver.Cost.valueOf(
+                        arg.substring("--cost=".length()).toUpperCase());
+            }
+            if (arg.startsWith("--parallelism=")) {
+                int parallelism = Integer.parseInt(
+                        arg.substring("--parallelism=".length()));
+                pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+            }
+        }
+        Espresso espresso = engine.equals("espresso")
+                ? new Espresso(iterations, timeLimit) : null;
+        // The Shannon engine decomposes down to leaves for the exact one
+        int leafVariables = engine.equals("shannon") ? leaf : 0;
+        if (metrics) {
+            // Printed however main returns
+            Runtime.getRuntime().addShutdownHook(new Thread(() ->
+                    Metrics.snapshot().forEach((name, value) ->
+                            System.err.println(name + " " + value))));
+        }
+        if (pla != null) {
+            Minimizer minimizer = new Minimizer(espresso, cost, pool)
+                    .withLimits(deadline, maxCubes)
+                    .withDecomposition(leafVariables);
+            try {
+                minimizePla(pla, plaOut, minimizer);
+            } catch (IllegalArgumentException e) {
+                System.err.println(e.getMessage());
+            }
+            return;
+        }
+        if (batch != null) {
+            // Jobs are spread over the workers, so each job merges serially
+            BufferedReader in = new BufferedReader(batch.equals("-")
+                    ? new InputStreamReader(System.in)
+                    : new FileReader(batch));
+            Writer out = new BufferedWriter(
+                    new OutputStreamWriter(System.out), 1 << 16);
+            ResultCache cache = cacheSize > 0 ? new ResultCache(cacheSize,
+                    (long) cacheSize << 10, canonical) : null;
+            new Batch(workers, ordered, new Minimizer(espresso, cost,
+                    null, cache).withLimits(deadline, maxCubes)
+                    .withDecomposition(leafVariables)).run(in, out);
+            in.close();
+            if (cache != null) {
+                System.err.println(cache);
+            }
+            return;
+        }
         Scanner sc = new Scanner(System.in);
-        Scanner sc1 = new Scanner(System.in);
         System.out.println("Please enter the number " +
                 "of variables: ");
         int number = sc.nextInt();
+        sc.nextLine();
         if(number < 1){
             System.out.println("invalid number");
             return;
         }
-        System.out.println("Please enter the expression: ");
-        String expression = sc1.nextLine();
-        if(!checkValidation(expression, number)){
-            System.out.println("invalid expression");
+        if(outputs < 1 || outputs > 64){
+            System.out.println("invalid number of outputs");
             return;
         }
-        // Generate all possible minterms
-        String[] array = new String[(int)Math.pow(2, number)];
-        for(int i = 0; i < array.length; i++) {
-            array[i] = intToBinary(i, number);
-        }
-        ArrayList<String> mintermsList = new ArrayList<>();
-        ArrayList<Integer> mintermsNum = new ArrayList<>();
-        for (int i = 0; i < array.length; i++) {
-            if (findMin(expression, array[i])) {
-                mintermsList.add(array[i]);
-                mintermsNum.add(i);
+        if(outputs == 1){
+            System.out.println(input == Job.Input.EXPRESSION
+                    ? "Please enter the expression: "
+                    : input == Job.Input.MINTERMS
+                    ? "Please enter the minterms: "
+                    : input == Job.Input.CUBES
+                    ? "Please enter the cubes: "
+                    : "Please enter the expression file: ");
+            Job job = new Job("1", number, sc.nextLine());
+            job.setInput(input);
+            job.setDcExpression(dcExpression);
+            try {
+                if (dcMinterms != null) {
+                    job.setDcMinterms(Job.parseMinterms(dcMinterms));
+                }
+                MinimizationResult result = new Minimizer(espresso, cost,
+                        pool).withLimits(deadline, maxCubes)
+                        .withDecomposition(leafVariables).minimize(job);
+                System.out.println("Answer: " + result);
+                if (!result.isOptimal() && result.getGap()
+                        != MinimizationResult.UNKNOWN_GAP) {
+                    System.out.println("Out of budget: the cost may be up "
+                            + "to " + result.getGap() + " above the minimum");
+                }
+            } catch (IllegalArgumentException e) {
+                // NumberFormatException of the minterm list included
+                System.out.println(e instanceof NumberFormatException
+                        ? "invalid don't-care set" : e.getMessage());
             }
-        }
-        // Handle special cases
-        if(mintermsList.isEmpty()){
-            System.out.println("Answer: 0");
             return;
         }
-        if(mintermsNum.size() == Math.pow(2, number)){
-            System.out.println("Answer: 1");
-            return;
+        System.out.println("Please enter the " + outputs
+                + " expressions, one per line: ");
+        String[] expressions = new String[outputs];
+        Expression[] programs = new Expression[outputs];
+        for (int o = 0; o < outputs; o++) {
+            expressions[o] = sc.nextLine();
+            try {
+                programs[o] = Minimizer.compile(expressions[o], number,
+                        "invalid expression");
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage());
+                return;
+            }
         }
-
-        Minterm[] minterms = new Minterm[mintermsNum.size()];
-        for (int i = 0; i < mintermsList.size(); i++) {
-            minterms[i] = new Minterm();
-            minterms[i].setBinary(mintermsList.get(i));
-            minterms[i].setNumber(String.valueOf(mintermsNum.get(i)));
-        }
-        // Group minterms by number of 1s
-        int numberOfOnes;
-        Minterm[][] mintermGroups = new Minterm[number + 1][30];
-        for (Minterm minterm : minterms) {
-            numberOfOnes = minterm.numberOfOnes();
-            for (int j = 0; j < 30; j++) {
-                if (mintermGroups[numberOfOnes][j] == null) {
-                    mintermGroups[numberOfOnes][j] = new Minterm();
-                    mintermGroups[numberOfOnes][j]
-                            .setBinary(minterm.getBinary());
-                    mintermGroups[numberOfOnes][j]
-                            .setNumber(minterm.getNumber());
-                    break;
+        TruthTable dontCares = new TruthTable(number);
+        long[] dcList = new long[0];
+        try {
+            if (dcExpression != null) {
+                dontCares.or(TruthTable.of(Minimizer.compile(dcExpression,
+                        number, "invalid don't-care set")));
+            }
+            if (dcMinterms != null) {
+                dcList = Job.parseMinterms(dcMinterms);
+            }
+            for (long d : dcList) {
+                if (d < 0 || d >= 1L << number) {
+                    throw new IllegalArgumentException();
                 }
+                dontCares.set(d);
             }
+        } catch (IllegalArgumentException e) {
+            System.out.println("invalid don't-care set");
+            return;
         }
-        ArrayList<Minterm> PIList = new ArrayList<>();
-        Minterm[][] temp = mintermGroups;
-        for (int i = 0; i < 4; i++) {
-            temp = foundPI(temp, PIList);
-        }
-        // Remove duplicate PIs
-        ArrayList<Minterm> PIs = new ArrayList<>();
-        PIs.add(PIList.get(0));
-        int index = 1;
-        for (int i = 1; i < PIList.size(); i++) {
-            if(PIList.get(i) == null){
-                continue;
-            }
-            if(!PIs.get(index-1).getBinary().equals
-                    ( PIList.get(i).getBinary())){
-                if(i <= 2 || (!PIs.get(index - 2).getBinary()
-                        .equals(PIList.get(i).getBinary()))){
-                    PIs.add(PIList.get(i));
-                    index++;
-                }
+        if (espresso != null) {
+            // Outputs are minimized one by one
+            for (int o = 0; o < outputs; o++) {
+                Job job = new Job(String.valueOf(o + 1), number,
+                        expressions[o]);
+                job.setDcExpression(dcExpression);
+                job.setDcMinterms(dcList);
+                System.out.println("Answer " + (o + 1) + ": "
+                        + solve(job, espresso, cost, pool));
             }
+            return;
         }
-        ArrayList<Minterm> EPIList = foundEPI(PIs, minterms);
-        System.out.print("Answer: ");
-        printAnswer(EPIList);
+        minimizeOutputs(programs, dontCares, pool, cost);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,366 @@
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Process-wide counters and timers of the minimization pipeline.
+ * Every counter is a LongAdder, so threads add to their own cells and
+ * the counters can stay on in production. Each phase is also emitted
+ * as a Flight Recorder event, and so are each round of the tabulation
+ * and each minimization, when a recording has them enabled.
+ *
+ * Rounds are also counted by column of the tabulation, the number of
+ * dashes of the cubes merged, to see which columns the merging time
+ * goes to.
+ */
+public final class Metrics {
+    /**
+     * Phases of a minimization, each with a call count and total time.
+     */
+    public enum Phase {
+        VALIDATION, TRUTH_TABLE,
+        /**
+         * Sorting minterm lists and dropping repeats. Merged cubes are
+         * deduplicated as they are added, counted as DUPLICATES.
+         */
+        DEDUP,
+        PRIME_IMPLICANTS, COVER;
+
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+    }
+
+    /**
+     * Things counted inside the phases.
+     */
+    public enum Counter {
+        /** Functions minimized. */
+        MINIMIZATIONS,
+        /** Assignments evaluated for truth tables. */
+        ASSIGNMENTS,
+        /** Columns of the tabulation, foundPI calls. */
+        ROUNDS,
+        /** Partner lookups while merging. */
+        COMPARISONS,
+        /** Merges of two cubes. */
+        MERGES,
+        /** Merged cubes already in the next column. */
+        DUPLICATES,
+        /** Prime Implicants found. */
+        PRIME_IMPLICANTS,
+        /** Rows of the cover tables. */
+        COVER_ROWS,
+        /** Columns of the cover tables. */
+        COVER_COLUMNS,
+        /** Essential Prime Implicants found. */
+        ESSENTIALS,
+        /** Nodes of the branch and bound search. */
+        BRANCH_NODES;
+
+        private final LongAdder value = new LongAdder();
+    }
+
+    // Columns of the tabulation, up to cubes of 64 dashes
+    private static final int COLUMNS = 65;
+    private static final LongAdder[] ROUND_CALLS = adders();
+    private static final LongAdder[] ROUND_COMPARISONS = adders();
+    private static final LongAdder[] ROUND_MERGES = adders();
+    private static final LongAdder[] ROUND_DUPLICATES = adders();
+
+    private Metrics() {
+    }
+
+    /**
+     * Counts of one round of the tabulation, a foundPI column, which
+     * the threads merging its group pairs add to.
+     */
+    static final class Round {
+        private final int column;
+        private final long start = System.nanoTime();
+        private final LongAdder comparisons = new LongAdder();
+        private final LongAdder merges = new LongAdder();
+        private final LongAdder duplicates = new LongAdder();
+
+        private Round(int column) {
+            this.column = column;
+        }
+    }
+
+    /**
+     * Starts a round of the tabulation.
+     *
+     * @param column Number of dashes of the cubes it merges
+     * @return The round to count into and pass to endRound
+     */
+    static Round startRound(int column) {
+        increment(Counter.ROUNDS);
+        return new Round(column);
+    }
+
+    /**
+     * Adds the work of merging a range of cubes.
+     *
+     * @param round Round the range belongs to, or null for none
+     */
+    static void merged(Round round, long comparisons, long merges,
+                       long duplicates) {
+        add(Counter.COMPARISONS, comparisons);
+        add(Counter.MERGES, merges);
+        add(Counter.DUPLICATES, duplicates);
+        if (round != null) {
+            round.comparisons.add(comparisons);
+            round.merges.add(merges);
+            round.duplicates.add(duplicates);
+        }
+    }
+
+    /**
+     * Ends a round: adds it to the counts of its column and emits a
+     * RoundEvent.
+     *
+     * @param round Value returned by startRound
+     * @param variables Number of variables of the function
+     * @param cubes Cubes of the column merged
+     * @param primeImplicants Prime Implicants the round found
+     */
+    static void endRound(Round round, int variables, long cubes,
+                         long primeImplicants) {
+        long comparisons = round.comparisons.sum();
+        long merges = round.merges.sum();
+        long duplicates = round.duplicates.sum();
+        int column = Math.min(round.column, COLUMNS - 1);
+        ROUND_CALLS[column].increment();
+        ROUND_COMPARISONS[column].add(comparisons);
+        ROUND_MERGES[column].add(merges);
+        ROUND_DUPLICATES[column].add(duplicates);
+        RoundEvent event = new RoundEvent();
+        if (event.shouldCommit()) {
+            event.column = round.column;
+            event.variables = variables;
+            event.cubes = cubes;
+            event.comparisons = comparisons;
+            event.merges = merges;
+            event.duplicates = duplicates;
+            event.primeImplicants = primeImplicants;
+            event.elapsed = System.nanoTime() - round.start;
+            event.commit();
+        }
+    }
+
+    /**
+     * Adds to a counter.
+     *
+     * @param counter The counter
+     * @param amount Amount to add
+     */
+    public static void add(Counter counter, long amount) {
+        counter.value.add(amount);
+    }
+
+    public static void increment(Counter counter) {
+        counter.value.increment();
+    }
+
+    /**
+     * Starts timing a phase.
+     *
+     * @return The start time to pass to end
+     */
+    public static long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Ends a phase: adds its time and emits a PhaseEvent.
+     *
+     * @param phase The phase
+     * @param start Value returned by start()
+     * @param variables Number of variables of the function
+     * @param items Size of the phase's output, such as the number
+     *              of minterms or of PIs
+     */
+    public static void end(Phase phase, long start, int variables,
+                           long items) {
+        long nanos = System.nanoTime() - start;
+        phase.calls.increment();
+        phase.nanos.add(nanos);
+        PhaseEvent event = new PhaseEvent();
+        if (event.shouldCommit()) {
+            event.phase = phase.name();
+            event.variables = variables;
+            event.items = items;
+            event.elapsed = nanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * Counts a finished minimization and emits a MinimizationEvent.
+     *
+     * @param engine Name of the engine
+     * @param variables Number of variables
+     * @param cubes Cubes of the answer
+     * @param literals Literals of the answer
+     * @param nanos Time of the whole minimization
+     */
+    public static void minimized(String engine, int variables, int cubes,
+                                 int literals, long nanos) {
+        increment(Counter.MINIMIZATIONS);
+        MinimizationEvent event = new MinimizationEvent();
+        if (event.shouldCommit()) {
+            event.engine = engine;
+            event.variables = variables;
+            event.cubes = cubes;
+            event.literals = literals;
+            event.elapsed = nanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * Reads every counter and timer. Counters updated while the
+     * snapshot is taken may or may not be included.
+     *
+     * @return Values by name, such as "merges", "phase.cover.nanos"
+     *         or "round.1.merges" for the rounds of column 1, which
+     *         only has columns that were merged
+     */
+    public static Map<String, Long> snapshot() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (Counter counter : Counter.values()) {
+            values.put(name(counter), counter.value.sum());
+        }
+        for (Phase phase : Phase.values()) {
+            values.put("phase." + name(phase) + ".calls", phase.calls.sum());
+            values.put("phase." + name(phase) + ".nanos", phase.nanos.sum());
+        }
+        for (int column = 0; column < COLUMNS; column++) {
+            long calls = ROUND_CALLS[column].sum();
+            if (calls == 0) {
+                continue;
+            }
+            String prefix = "round." + column + ".";
+            values.put(prefix + "calls", calls);
+            values.put(prefix + "comparisons",
+                    ROUND_COMPARISONS[column].sum());
+            values.put(prefix + "merges", ROUND_MERGES[column].sum());
+            values.put(prefix + "duplicates",
+                    ROUND_DUPLICATES[column].sum());
+        }
+        return Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * Sets every counter and timer back to zero.
+     */
+    public static void reset() {
+        for (Counter counter : Counter.values()) {
+            counter.value.reset();
+        }
+        for (Phase phase : Phase.values()) {
+            phase.calls.reset();
+            phase.nanos.reset();
+        }
+        for (int column = 0; column < COLUMNS; column++) {
+            ROUND_CALLS[column].reset();
+            ROUND_COMPARISONS[column].reset();
+            ROUND_MERGES[column].reset();
+            ROUND_DUPLICATES[column].reset();
+        }
+    }
+
+    private static LongAdder[] adders() {
+        LongAdder[] adders = new LongAdder[COLUMNS];
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    private static String name(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    @Name("qm.Phase")
+    @Label("Minimization Phase")
+    @Category("Quine-McCluskey")
+    @Description("One phase of a minimization")
+    static class PhaseEvent extends Event {
+        @Label("Phase")
+        String phase;
+
+        @Label("Variables")
+        int variables;
+
+        @Label("Items")
+        @Description("Minterms, Prime Implicants or cubes produced")
+        long items;
+
+        @Label("Phase Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long elapsed;
+    }
+
+    @Name("qm.Round")
+    @Label("Tabulation Round")
+    @Category("Quine-McCluskey")
+    @Description("One column of the tabulation merged")
+    static class RoundEvent extends Event {
+        @Label("Column")
+        @Description("Dashes of the cubes merged")
+        int column;
+
+        @Label("Variables")
+        int variables;
+
+        @Label("Cubes")
+        long cubes;
+
+        @Label("Comparisons")
+        long comparisons;
+
+        @Label("Merges")
+        long merges;
+
+        @Label("Duplicates")
+        long duplicates;
+
+        @Label("Prime Implicants")
+        long primeImplicants;
+
+        @Label("Round Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long elapsed;
+    }
+
+    @Name("qm.Minimization")
+    @Label("Minimization")
+    @Category("Quine-McCluskey")
+    @Description("One function minimized")
+    static class MinimizationEvent extends Event {
+        @Label("Engine")
+        String engine;
+
+        @Label("Variables")
+        int variables;
+
+        @Label("Cubes")
+        int cubes;
+
+        @Label("Literals")
+        int literals;
+
+        @Label("Minimization Duration")
+        @Timespan(Timespan.NANOSECONDS)
+        long elapsed;
+    }
+}
@@ -0,0 +1,85 @@
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The answer of a Minimizer: the chosen product terms, their number
+ * of literals, how long the minimization took and, for a cover that is
+ * not proven minimal, how far it may be from the minimum.
+ */
+public class MinimizationResult {
+    /**
+     * Gap of a cover with no known lower bound, such as an Espresso
+     * cover.
+     */
+    public static final long UNKNOWN_GAP = -1;
+
+    private final List<Cube> cubes;
+    private final int literals;
+    private final long elapsedNanos;
+    private final boolean optimal;
+    private final long gap;
+
+    public MinimizationResult(List<Cube> cubes, long elapsedNanos) {
+        this(cubes, elapsedNanos, true, 0);
+    }
+
+    /**
+     * Creates a result.
+     *
+     * @param cubes The cover
+     * @param elapsedNanos Time of the minimization
+     * @param optimal false if the cover is not proven minimal
+     * @param gap Most the cost of the cover may exceed the minimum,
+     *            or UNKNOWN_GAP
+     */
+    public MinimizationResult(List<Cube> cubes, long elapsedNanos,
+                              boolean optimal, long gap) {
+        this.cubes = Collections.unmodifiableList(cubes);
+        this.literals = Espresso.literals(cubes);
+        this.elapsedNanos = elapsedNanos;
+        this.optimal = optimal;
+        this.gap = gap;
+    }
+
+    /**
+     * Returns the product terms, no cubes for 0 and the universal
+     * cube for 1.
+     */
+    public List<Cube> getCubes() {
+        return cubes;
+    }
+
+    public int getLiterals() {
+        return literals;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Tells if the cover has the minimum cost. Espresso covers never
+     * are. An exact cover is not when its budget ran out, and a
+     * decomposed cover is only when its cost meets the lower bound its
+     * leaves give.
+     */
+    public boolean isOptimal() {
+        return optimal;
+    }
+
+    /**
+     * Returns how much the cost of the cover may exceed the minimum,
+     * 0 for an optimal cover and UNKNOWN_GAP for an Espresso one.
+     */
+    public long getGap() {
+        return gap;
+    }
+
+    /**
+     * Formats the answer like "AB' + C".
+     */
+    @Override
+    public String toString() {
+        return Main.formatAnswer(cubes);
+    }
+}
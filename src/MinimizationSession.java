@@ -0,0 +1,590 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A function of at most 63 variables kept minimized while minterms
+ * are added and removed one at a time. The session keeps the care
+ * minterms, the Prime Implicants and the chosen cover, so an update
+ * only revisits the cubes near the changed minterm:
+ *
+ * - A minterm joining the care set (ON-set or don't-cares) gives the
+ *   new PIs, all of which contain it; they are grown from the minterm
+ *   one variable at a time. Old PIs inside a new one are dropped.
+ * - A minterm leaving the care set removes the PIs containing it.
+ *   Each of them is split into its largest cubes without the minterm,
+ *   one per don't-care, and those not inside another PI are the new
+ *   ones.
+ * - The cubes of the cover that are no longer PIs are dropped, and
+ *   the ON minterms they leave uncovered, with the changed minterm,
+ *   are the only columns of a new cover table. Its rows are the PIs
+ *   containing them, and its minimum cover is added to the rest of
+ *   the old one. Cubes the new ones make redundant are removed.
+ *
+ * An update thus costs in proportion to the PIs and minterms around
+ * the change, not to the whole function. The price is that the cover
+ * stays valid and irredundant but may drift above the minimum over
+ * many updates; resolve() solves the whole cover table again. Each
+ * cover table may be given a time limit, past which the best cover
+ * found is kept, as for a Budget.
+ *
+ * Sets of minterms and of cubes are open addressing tables of longs,
+ * the cubes grouped by mask, so the session holds one entry per care
+ * minterm and one per PI. A session is not thread safe.
+ */
+public class MinimizationSession {
+    private final int number;
+    private final CoverSolver.Cost cost;
+    private final long timeLimit;
+    private final LongSet on = new LongSet();
+    private final LongSet dontCares = new LongSet();
+    private final CubeSet primes = new CubeSet();
+    private final CubeSet cover = new CubeSet();
+
+    /**
+     * Creates a session for the constant 0 function.
+     *
+     * @param number Number of variables, 1 to 63
+     * @param cost Cost of a PI in the cover
+     */
+    public MinimizationSession(int number, CoverSolver.Cost cost) {
+        this(number, cost, new long[0], new long[0]);
+    }
+
+    /**
+     * Creates a session for a function, minimizing it once with the
+     * whole tabulation.
+     *
+     * @param number Number of variables, 1 to 63
+     * @param cost Cost of a PI in the cover
+     * @param minterms Minterms of the ON-set
+     * @param dcMinterms Minterms of the don't-care set
+     * @throws IllegalArgumentException if a minterm is out of range
+     */
+    public MinimizationSession(int number, CoverSolver.Cost cost,
+                               long[] minterms, long[] dcMinterms) {
+        this(number, cost, minterms, dcMinterms, 0);
+    }
+
+    /**
+     * Creates a session for a function whose cover tables are solved
+     * within a time limit, the first one, over the whole function,
+     * included.
+     *
+     * @param number Number of variables, 1 to 63
+     * @param cost Cost of a PI in the cover
+     * @param minterms Minterms of the ON-set
+     * @param dcMinterms Minterms of the don't-care set
+     * @param timeLimit Time limit of each cover table in nanoseconds,
+     *                  0 for none
+     * @throws IllegalArgumentException if a minterm is out of range
+     */
+    public MinimizationSession(int number, CoverSolver.Cost cost,
+                               long[] minterms, long[] dcMinterms,
+                               long timeLimit) {
+        if (number < 1 || number > 63) {
+            throw new IllegalArgumentException("invalid number");
+        }
+        this.number = number;
+        this.cost = cost;
+        this.timeLimit = timeLimit;
+        for (long d : dcMinterms) {
+            dontCares.add(check(d));
+        }
+        for (long m : minterms) {
+            dontCares.remove(check(m));
+            on.add(m);
+        }
+        // Group the care minterms by number of 1s
+        CubeList[] groups = new CubeList[number + 1];
+        for (int i = 0; i < groups.length; i++) {
+            groups[i] = new CubeList(number);
+        }
+        for (LongSet set : List.of(on, dontCares)) {
+            for (long m : set.toArray()) {
+                groups[Long.bitCount(m)].add(Cube.ofMinterm(number, m));
+            }
+        }
+        ArrayList<Minterm> PIs = new ArrayList<>();
+        while (!Main.isEmpty(groups)) {
+            groups = Main.foundPI(groups, PIs);
+        }
+        for (Minterm PI : PIs) {
+            primes.add(PI.getCube());
+        }
+        resolve();
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
+    /**
+     * Returns the chosen cover, no cubes for 0 and the universal cube
+     * for 1. Copying it takes time in proportion to its size, so
+     * callers making many updates read it only when they need it.
+     */
+    public List<Cube> getCubes() {
+        return cover.cubes();
+    }
+
+    /**
+     * Returns every Prime Implicant of the ON-set and don't-cares.
+     */
+    public List<Cube> getPrimeImplicants() {
+        return primes.cubes();
+    }
+
+    /**
+     * Solves the whole cover table again, for a minimum cover after
+     * many updates. It takes as long as minimizing the function from
+     * its PIs.
+     */
+    public void resolve() {
+        cover.clear();
+        patch(on.toArray());
+    }
+
+    /**
+     * Puts a minterm in the ON-set, taking it out of the don't-cares
+     * if it is there.
+     *
+     * @param minterm The minterm
+     * @throws IllegalArgumentException if the minterm is out of range
+     */
+    public void add(long minterm) {
+        boolean care = isCare(check(minterm));
+        dontCares.remove(minterm);
+        on.add(minterm);
+        update(minterm, care, true);
+    }
+
+    /**
+     * Puts a minterm in the don't-care set, taking it out of the
+     * ON-set if it is there.
+     *
+     * @param minterm The minterm
+     * @throws IllegalArgumentException if the minterm is out of range
+     */
+    public void addDontCare(long minterm) {
+        boolean care = isCare(check(minterm));
+        on.remove(minterm);
+        dontCares.add(minterm);
+        update(minterm, care, true);
+    }
+
+    /**
+     * Puts a minterm in the OFF-set.
+     *
+     * @param minterm The minterm
+     * @throws IllegalArgumentException if the minterm is out of range
+     */
+    public void remove(long minterm) {
+        boolean care = isCare(check(minterm));
+        on.remove(minterm);
+        dontCares.remove(minterm);
+        update(minterm, care, false);
+    }
+
+    @Override
+    public String toString() {
+        return Main.formatAnswer(getCubes());
+    }
+
+    /**
+     * Brings the PIs and the cover up to date with one changed
+     * minterm.
+     *
+     * @param wasCare Whether the minterm was in the care set before
+     * @param isCare Whether it is now
+     */
+    private void update(long minterm, boolean wasCare, boolean isCare) {
+        // Cubes of the cover that are no longer PIs
+        List<Cube> dropped = new ArrayList<>();
+        if (!wasCare && isCare) {
+            grow(minterm, dropped);
+        }
+        else if (wasCare && !isCare) {
+            split(minterm, dropped);
+        }
+        // The ON minterms the rest of the cover misses
+        LongSet columns = new LongSet();
+        if (on.contains(minterm) && !cover.covers(minterm)) {
+            columns.add(minterm);
+        }
+        for (Cube cube : dropped) {
+            for (long m = cube.firstMinterm(); m >= 0;
+                 m = cube.nextMinterm(m)) {
+                if (on.contains(m) && !cover.covers(m)) {
+                    columns.add(m);
+                }
+            }
+        }
+        List<Cube> added = patch(columns.toArray());
+        // A minterm turned don't-care, or the new cubes, may leave
+        // old cubes of the cover with nothing of their own to cover
+        Set<Cube> candidates = new LinkedHashSet<>(
+                cover.containing(minterm));
+        for (Cube cube : added) {
+            for (long m = cube.firstMinterm(); m >= 0;
+                 m = cube.nextMinterm(m)) {
+                if (on.contains(m)) {
+                    candidates.addAll(cover.containing(m));
+                }
+            }
+        }
+        candidates.removeAll(added);
+        for (Cube cube : candidates) {
+            if (isRedundant(cube)) {
+                cover.remove(cube);
+            }
+        }
+    }
+
+    /**
+     * Adds the PIs of a minterm that joined the care set. They are
+     * the largest cubes around the minterm inside the care set, found
+     * by adding don't-cares in increasing bit order so that each cube
+     * is reached once.
+     *
+     * @param dropped Receives the cubes of the cover removed
+     */
+    private void grow(long minterm, List<Cube> dropped) {
+        // Masks of every implicant containing the minterm
+        Set<Long> masks = new HashSet<>();
+        ArrayDeque<Long> queue = new ArrayDeque<>();
+        masks.add(0L);
+        queue.add(0L);
+        while (!queue.isEmpty()) {
+            long mask = queue.poll();
+            int low = 64 - Long.numberOfLeadingZeros(mask);
+            for (int bit = low; bit < number; bit++) {
+                long b = 1L << bit;
+                // The other half of the larger cube
+                if (isImplicant((minterm ^ b) & ~mask, mask)) {
+                    masks.add(mask | b);
+                    queue.add(mask | b);
+                }
+            }
+        }
+        for (long mask : masks) {
+            boolean prime = true;
+            for (int bit = 0; bit < number && prime; bit++) {
+                long b = 1L << bit;
+                prime = (mask & b) != 0 || !masks.contains(mask | b);
+            }
+            if (!prime) {
+                continue;
+            }
+            Cube cube = new Cube(number, minterm & ~mask, mask);
+            // Old PIs inside the new one are no longer prime
+            for (Cube old : primes.inside(cube)) {
+                removePrime(old, dropped);
+            }
+            primes.add(cube);
+        }
+    }
+
+    /**
+     * Replaces the PIs of a minterm that left the care set by their
+     * largest cubes without it.
+     *
+     * @param dropped Receives the cubes of the cover removed
+     */
+    private void split(long minterm, List<Cube> dropped) {
+        Set<Cube> candidates = new LinkedHashSet<>();
+        for (Cube cube : primes.containing(minterm)) {
+            removePrime(cube, dropped);
+            long value = cube.getValue(0);
+            long mask = cube.getMask(0);
+            for (int bit = 0; bit < number; bit++) {
+                long b = 1L << bit;
+                if ((mask & b) != 0) {
+                    // Fix the variable to the value the minterm hasn't
+                    candidates.add(new Cube(number, value | ~minterm & b,
+                            mask & ~b));
+                }
+            }
+        }
+        for (Cube candidate : candidates) {
+            boolean prime = true;
+            for (Cube other : primes.containing(
+                    candidate.firstMinterm())) {
+                prime &= !other.contains(candidate);
+            }
+            for (Cube other : candidates) {
+                prime &= other == candidate || !other.contains(candidate);
+            }
+            if (prime) {
+                primes.add(candidate);
+            }
+        }
+    }
+
+    /**
+     * Covers ON minterms with a minimum cover made of the PIs that
+     * contain them, and adds it to the cover.
+     *
+     * @param columns ON minterms no cube of the cover contains
+     * @return The cubes added
+     */
+    private List<Cube> patch(long[] columns) {
+        if (columns.length == 0) {
+            return List.of();
+        }
+        Set<Cube> rows = new LinkedHashSet<>();
+        for (long m : columns) {
+            rows.addAll(primes.containing(m));
+        }
+        ArrayList<Minterm> PIs = new ArrayList<>(rows.size());
+        for (Cube cube : rows) {
+            Minterm PI = new Minterm();
+            PI.setCube(cube);
+            PIs.add(PI);
+        }
+        Arrays.sort(columns);
+        List<Cube> added = new ArrayList<>();
+        Budget budget = timeLimit > 0 ? new Budget(timeLimit, 0) : null;
+        for (Minterm EPI : Main.foundEPI(PIs, columns, cost, budget)) {
+            cover.add(EPI.getCube());
+            added.add(EPI.getCube());
+        }
+        return added;
+    }
+
+    /**
+     * Checks if every ON minterm of a cube of the cover is in another
+     * cube of the cover.
+     */
+    private boolean isRedundant(Cube cube) {
+        for (long m = cube.firstMinterm(); m >= 0;
+             m = cube.nextMinterm(m)) {
+            if (on.contains(m) && cover.containing(m).size() < 2) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isImplicant(long value, long mask) {
+        for (long m = value; m >= 0; m = Cube.nextMinterm(value, mask, m)) {
+            if (!isCare(m)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isCare(long minterm) {
+        return on.contains(minterm) || dontCares.contains(minterm);
+    }
+
+    private void removePrime(Cube cube, List<Cube> dropped) {
+        primes.remove(cube);
+        if (cover.remove(cube)) {
+            dropped.add(cube);
+        }
+    }
+
+    private long check(long minterm) {
+        if (minterm < 0 || number < 63 && minterm >= 1L << number) {
+            throw new IllegalArgumentException("invalid minterm");
+        }
+        return minterm;
+    }
+
+    /**
+     * A set of cubes, as a set of values for each mask. Finding the
+     * cubes that contain a minterm looks it up once per mask.
+     */
+    private final class CubeSet {
+        private final Map<Long, LongSet> values = new HashMap<>();
+
+        boolean add(Cube cube) {
+            return values.computeIfAbsent(cube.getMask(0),
+                    k -> new LongSet()).add(cube.getValue(0));
+        }
+
+        boolean remove(Cube cube) {
+            LongSet set = values.get(cube.getMask(0));
+            if (set == null || !set.remove(cube.getValue(0))) {
+                return false;
+            }
+            if (set.size() == 0) {
+                values.remove(cube.getMask(0));
+            }
+            return true;
+        }
+
+        void clear() {
+            values.clear();
+        }
+
+        boolean covers(long minterm) {
+            for (Map.Entry<Long, LongSet> entry : values.entrySet()) {
+                if (entry.getValue().contains(minterm & ~entry.getKey())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        List<Cube> containing(long minterm) {
+            List<Cube> cubes = new ArrayList<>(2);
+            for (Map.Entry<Long, LongSet> entry : values.entrySet()) {
+                long mask = entry.getKey();
+                if (entry.getValue().contains(minterm & ~mask)) {
+                    cubes.add(new Cube(number, minterm & ~mask, mask));
+                }
+            }
+            return cubes;
+        }
+
+        /**
+         * Returns the cubes inside a cube, by listing the values a
+         * cube of each smaller mask can have in it, or by testing the
+         * values of the mask, whichever is fewer.
+         */
+        List<Cube> inside(Cube cube) {
+            long value = cube.getValue(0);
+            long mask = cube.getMask(0);
+            List<Cube> cubes = new ArrayList<>();
+            for (Map.Entry<Long, LongSet> entry : values.entrySet()) {
+                long smaller = entry.getKey();
+                LongSet set = entry.getValue();
+                if ((smaller & ~mask) != 0) {
+                    continue;
+                }
+                long free = mask & ~smaller;
+                if (Long.bitCount(free) < 31
+                        && 1L << Long.bitCount(free) <= set.size()) {
+                    long bits = 0;
+                    do {
+                        if (set.contains(value | bits)) {
+                            cubes.add(new Cube(number, value | bits,
+                                    smaller));
+                        }
+                        bits = (bits - free) & free;
+                    } while (bits != 0);
+                }
+                else {
+                    for (long v : set.toArray()) {
+                        if ((v & ~mask) == value) {
+                            cubes.add(new Cube(number, v, smaller));
+                        }
+                    }
+                }
+            }
+            return cubes;
+        }
+
+        List<Cube> cubes() {
+            List<Cube> cubes = new ArrayList<>();
+            for (Map.Entry<Long, LongSet> entry : values.entrySet()) {
+                for (long v : entry.getValue().toArray()) {
+                    cubes.add(new Cube(number, v, entry.getKey()));
+                }
+            }
+            return cubes;
+        }
+    }
+
+    /**
+     * A set of non-negative longs, open addressing with linear
+     * probing, -1 marking the free slots.
+     */
+    private static final class LongSet {
+        private long[] slots = free(8);
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        boolean contains(long key) {
+            int mask = slots.length - 1;
+            for (int i = slot(key); slots[i] != -1; i = (i + 1) & mask) {
+                if (slots[i] == key) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean add(long key) {
+            int mask = slots.length - 1;
+            int i = slot(key);
+            for (; slots[i] != -1; i = (i + 1) & mask) {
+                if (slots[i] == key) {
+                    return false;
+                }
+            }
+            slots[i] = key;
+            if (++size * 2 > slots.length) {
+                long[] old = slots;
+                slots = free(2 * old.length);
+                for (long k : old) {
+                    if (k != -1) {
+                        int j = slot(k);
+                        while (slots[j] != -1) {
+                            j = (j + 1) & (slots.length - 1);
+                        }
+                        slots[j] = k;
+                    }
+                }
+            }
+            return true;
+        }
+
+        boolean remove(long key) {
+            int mask = slots.length - 1;
+            int i = slot(key);
+            while (slots[i] != key) {
+                if (slots[i] == -1) {
+                    return false;
+                }
+                i = (i + 1) & mask;
+            }
+            // Shift back the keys that probed past the freed slot
+            for (int j = (i + 1) & mask; slots[j] != -1;
+                 j = (j + 1) & mask) {
+                int home = slot(slots[j]);
+                if (((j - home) & mask) >= ((j - i) & mask)) {
+                    slots[i] = slots[j];
+                    i = j;
+                }
+            }
+            slots[i] = -1;
+            size--;
+            return true;
+        }
+
+        long[] toArray() {
+            long[] keys = new long[size];
+            int n = 0;
+            for (long k : slots) {
+                if (k != -1) {
+                    keys[n++] = k;
+                }
+            }
+            return keys;
+        }
+
+        private int slot(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ h >>> 32) & (slots.length - 1);
+        }
+
+        private static long[] free(int length) {
+            long[] slots = new long[length];
+            Arrays.fill(slots, -1);
+            return slots;
+        }
+    }
+}
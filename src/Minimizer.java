@@ -0,0 +1,853 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Minimizes boolean functions given as an expression, a truth table
+ * or a minterm list. A Minimizer is immutable and can be shared by
+ * any number of threads; each thread keeps its own scratch buffers,
+ * so repeated calls reuse the truth tables, cube groups and merge
+ * marks of earlier calls instead of allocating new ones.
+ *
+ * The exact engine can be given a Budget per call, or a time limit
+ * and cube ceiling for every call with withLimits, to return the best
+ * cover found when the budget runs out. Such covers are not cached,
+ * but a call with a budget is still answered from the cache. Espresso
+ * covers are never marked optimal.
+ *
+ * With withDecomposition the exact engine splits functions larger
+ * than a leaf size into cofactors with a ShannonEngine, in the pool if
+ * there is one, and only tabulates the leaves. The leaves share the
+ * budget of the call, and the result is optimal only when the cover
+ * meets the lower bound the leaves give.
+ */
+public class Minimizer {
+    // Largest function that is put in a truth table for the cache
+    // when given as a minterm list
+    private static final int SMALL = 20;
+    private static final ThreadLocal<Workspace> WORKSPACE =
+            ThreadLocal.withInitial(Workspace::new);
+
+    private final Espresso espresso;
+    private final CoverSolver.Cost cost;
+    private final ForkJoinPool pool;
+    private final ResultCache cache;
+    private final CoverLibrary library;
+    private final long timeLimit;
+    private final long maxCubes;
+    private final int leafVariables;
+
+    /**
+     * Creates an exact minimizer that merges serially and counts cubes.
+     */
+    public Minimizer() {
+        this(null, CoverSolver.Cost.CUBES, null);
+    }
+
+    /**
+     * Creates a minimizer.
+     *
+     * @param espresso Espresso engine to use, or null for the exact one
+     * @param cost Cost of a PI in the cover
+     * @param pool Pool to merge in, or null to merge serially
+     */
+    public Minimizer(Espresso espresso, CoverSolver.Cost cost,
+                     ForkJoinPool pool) {
+        this(espresso, cost, pool, null);
+    }
+
+    /**
+     * Creates a minimizer whose exact engine looks up every truth
+     * table in a cache first.
+     *
+     * @param espresso Espresso engine to use, or null for the exact one
+     * @param cost Cost of a PI in the cover
+     * @param pool Pool to merge in, or null to merge serially
+     * @param cache Cache of covers, may be shared, or null for none
+     */
+    public Minimizer(Espresso espresso, CoverSolver.Cost cost,
+                     ForkJoinPool pool, ResultCache cache) {
+        this(espresso, cost, pool, cache, CoverLibrary.get());
+    }
+
+    /**
+     * Creates a minimizer that answers small functions from a cover
+     * library, or computes everything if the library is null.
+     */
+    Minimizer(Espresso espresso, CoverSolver.Cost cost,
+              ForkJoinPool pool, ResultCache cache, CoverLibrary library) {
+        this(espresso, cost, pool, cache, library, 0, 0, 0);
+    }
+
+    private Minimizer(Espresso espresso, CoverSolver.Cost cost,
+                      ForkJoinPool pool, ResultCache cache,
+                      CoverLibrary library, long timeLimit, long maxCubes,
+                      int leafVariables) {
+        this.espresso = espresso;
+        this.cost = cost;
+        this.pool = pool;
+        this.cache = cache;
+        this.library = library;
+        this.timeLimit = timeLimit;
+        this.maxCubes = maxCubes;
+        this.leafVariables = leafVariables;
+    }
+
+    /**
+     * Returns a minimizer like this one that gives every call without
+     * a Budget of its own a new Budget with these limits.
+     *
+     * @param timeLimit Time limit of a call in nanoseconds, 0 for none
+     * @param maxCubes Largest number of cubes the tabulation may
+     *                 hold, 0 for no limit
+     * @return The minimizer
+     */
+    public Minimizer withLimits(long timeLimit, long maxCubes) {
+        return new Minimizer(espresso, cost, pool, cache, library,
+                timeLimit, maxCubes, leafVariables);
+    }
+
+    /**
+     * Returns a minimizer like this one whose exact engine decomposes
+     * the functions given as expressions or truth tables, and minterm
+     * lists of less than TruthTable.MAPPED_VARIABLES variables, down
+     * to cofactors of a number of variables. Their covers are not
+     * proven minimal.
+     *
+     * @param leafVariables Largest cofactor to tabulate, at least 6,
+     *                      or 0 not to decompose
+     * @return The minimizer
+     * @throws IllegalArgumentException if leafVariables is from 1 to 5
+     */
+    public Minimizer withDecomposition(int leafVariables) {
+        if (leafVariables != 0 && leafVariables < 6) {
+            throw new IllegalArgumentException("invalid leaf size");
+        }
+        return new Minimizer(espresso, cost, pool, cache, library,
+                timeLimit, maxCubes, leafVariables);
+    }
+
+    public ResultCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Minimizes an expression.
+     *
+     * @param number Number of variables
+     * @param expression The expression, such as "A.B + C'"
+     * @return The result
+     * @throws IllegalArgumentException if the input is invalid
+     */
+    public MinimizationResult minimize(int number, String expression) {
+        return minimize(new Job("1", number, expression));
+    }
+
+    /**
+     * Minimizes an expression read from a stream, such as a large sum
+     * of products dumped by another tool.
+     *
+     * @param number Number of variables
+     * @param expression Source of the expression, read to the end
+     * @return The result
+     * @throws IOException if reading fails
+     * @throws IllegalArgumentException if the input is invalid
+     */
+    public MinimizationResult minimize(int number, Reader expression)
+            throws IOException {
+        long start = System.nanoTime();
+        if (number < 1) {
+            throw new IllegalArgumentException("invalid number");
+        }
+        Expression program = compile(expression, number);
+        if (espresso != null) {
+            return heuristic(number, espresso.minimize(
+                    program.toCover(), new ArrayList<>()), start);
+        }
+        Workspace workspace = WORKSPACE.get();
+        long phase = Metrics.start();
+        TruthTable table = workspace.table(number, 0);
+        table.fill(program, workspace.registers(program.registerCount()));
+        Metrics.add(Metrics.Counter.ASSIGNMENTS, 1L << number);
+        Metrics.end(Metrics.Phase.TRUTH_TABLE, phase, number,
+                table.cardinality());
+        Budget budget = budget(budget(), number);
+        return result(engine(number), number, minimize(table,
+                workspace.table(number, 1), workspace, budget), start,
+                budget);
+    }
+
+    /**
+     * Minimizes a job with its don't-care set.
+     *
+     * @param job The function to minimize
+     * @return The result
+     * @throws IllegalArgumentException if the job is invalid
+     */
+    public MinimizationResult minimize(Job job) {
+        return minimize(job, budget());
+    }
+
+    /**
+     * Minimizes a job within a budget.
+     *
+     * @param job The function to minimize
+     * @param budget Budget of the exact engine, or null for none
+     * @return The result, optimal or not
+     * @throws IllegalArgumentException if the job is invalid
+     */
+    public MinimizationResult minimize(Job job, Budget budget) {
+        long start = System.nanoTime();
+        int number = job.getNumber();
+        if (number < 1) {
+            throw new IllegalArgumentException("invalid number");
+        }
+        if (job.getInput() == Job.Input.MINTERMS
+                || job.getInput() == Job.Input.CUBES) {
+            return minimizeList(job, budget);
+        }
+        Expression program = job.getInput() == Job.Input.FILE
+                ? read(job.getExpression(), number)
+                : compile(job.getExpression(), number,
+                "invalid expression");
+        // Don't-cares, as a second expression or a list of minterms
+        Expression dcProgram = job.getDcExpression() == null ? null
+                : compile(job.getDcExpression(), number,
+                "invalid don't-care set");
+        checkMinterms(job.getDcMinterms(), number, "invalid don't-care set");
+        if (espresso != null) {
+            // Minimize the cover of the expression, no truth table
+            List<Cube> dc = new ArrayList<>();
+            if (dcProgram != null) {
+                dc.addAll(dcProgram.toCover());
+            }
+            for (long d : job.getDcMinterms()) {
+                dc.add(Cube.ofMinterm(number, d));
+            }
+            return heuristic(number,
+                    espresso.minimize(program.toCover(), dc), start);
+        }
+        // Generate the ON-set, 64 assignments per word
+        long phase = Metrics.start();
+        Workspace workspace = WORKSPACE.get();
+        TruthTable table = workspace.table(number, 0);
+        table.fill(program, workspace.registers(program.registerCount()));
+        TruthTable dontCares = workspace.table(number, 1);
+        if (dcProgram != null) {
+            dontCares.fill(dcProgram,
+                    workspace.registers(dcProgram.registerCount()));
+        }
+        for (long d : job.getDcMinterms()) {
+            dontCares.set(d);
+        }
+        Metrics.add(Metrics.Counter.ASSIGNMENTS, (dcProgram != null ? 2L
+                : 1L) << number);
+        Metrics.end(Metrics.Phase.TRUTH_TABLE, phase, number,
+                table.cardinality());
+        budget = budget(budget, number);
+        return result(engine(number), number, minimize(table, dontCares,
+                workspace, budget), start, budget);
+    }
+
+    /**
+     * Minimizes a function given as minterm numbers. The exact engine
+     * groups them directly, so the work grows with the number of
+     * minterms and not with 2^number.
+     *
+     * @param number Number of variables, at most 63
+     * @param minterms Minterms of the ON-set, in any order
+     * @param dcMinterms Minterms of the don't-care set
+     * @return The result
+     * @throws IllegalArgumentException if a minterm is out of range
+     */
+    public MinimizationResult minimize(int number, long[] minterms,
+                                       long[] dcMinterms) {
+        return minimize(number, minterms, dcMinterms, budget());
+    }
+
+    /**
+     * Minimizes a function given as minterm numbers within a budget.
+     *
+     * @param number Number of variables, at most 63
+     * @param minterms Minterms of the ON-set, in any order
+     * @param dcMinterms Minterms of the don't-care set
+     * @param budget Budget of the exact engine, or null for none
+     * @return The result, optimal or not
+     * @throws IllegalArgumentException if a minterm is out of range
+     */
+    public MinimizationResult minimize(int number, long[] minterms,
+                                       long[] dcMinterms, Budget budget) {
+        long start = System.nanoTime();
+        if (number < 1 || number > 63) {
+            throw new IllegalArgumentException("invalid number");
+        }
+        checkMinterms(minterms, number, "invalid minterm");
+        checkMinterms(dcMinterms, number, "invalid don't-care set");
+        if (espresso != null) {
+            return heuristic(number, espresso.minimize(
+                    cover(number, minterms), cover(number, dcMinterms)),
+                    start);
+        }
+        Workspace workspace = WORKSPACE.get();
+        if (library != null && number <= CoverLibrary.MAX_VARIABLES
+                || cache != null && number <= SMALL
+                || decomposes(number)
+                && number < TruthTable.MAPPED_VARIABLES) {
+            // Small enough for the table based shortcuts
+            TruthTable table = workspace.table(number, 0);
+            for (long m : minterms) {
+                table.set(m);
+            }
+            TruthTable dontCares = workspace.table(number, 1);
+            for (long d : dcMinterms) {
+                dontCares.set(d);
+            }
+            budget = budget(budget, number);
+            return result(engine(number), number, minimize(table,
+                    dontCares, workspace, budget), start, budget);
+        }
+        long phase = Metrics.start();
+        long[] on = distinct(minterms);
+        long[] care = union(on, distinct(dcMinterms));
+        Metrics.end(Metrics.Phase.DEDUP, phase, number, care.length);
+        return result("qm", number, solve(number, on, care, 0,
+                workspace, budget), start, budget);
+    }
+
+    /**
+     * Minimizes a function given as a list of cubes. Espresso works on
+     * the cubes. The exact engine seeds its first column with the
+     * cubes split over the variables some cube fixes; variables free
+     * in every cube stay free, since the function doesn't depend on
+     * them.
+     *
+     * @param number Number of variables, at most 63
+     * @param on Cubes of the ON-set
+     * @param dc Cubes of the don't-care set
+     * @return The result
+     * @throws IllegalArgumentException if a cube has another size
+     */
+    public MinimizationResult minimize(int number, List<Cube> on,
+                                       List<Cube> dc) {
+        return minimize(number, on, dc, budget());
+    }
+
+    private MinimizationResult minimize(int number, List<Cube> on,
+                                        List<Cube> dc, Budget budget) {
+        long start = System.nanoTime();
+        if (number < 1 || number > 63) {
+            throw new IllegalArgumentException("invalid number");
+        }
+        for (List<Cube> cubes : List.of(on, dc)) {
+            for (Cube cube : cubes) {
+                if (cube.getSize() != number) {
+                    throw new IllegalArgumentException("invalid cube");
+                }
+            }
+        }
+        if (espresso != null) {
+            return heuristic(number, espresso.minimize(on, dc),
+                    start);
+        }
+        long free = -1L >>> 64 - number;
+        for (List<Cube> cubes : List.of(on, dc)) {
+            for (Cube cube : cubes) {
+                free &= cube.getMask(0);
+            }
+        }
+        if (free == 0) {
+            return minimize(number, minterms(on, 0), minterms(dc, 0),
+                    budget);
+        }
+        long phase = Metrics.start();
+        long[] onCubes = distinct(minterms(on, free));
+        long[] care = union(onCubes, distinct(minterms(dc, free)));
+        Metrics.end(Metrics.Phase.DEDUP, phase, number, care.length);
+        return result("qm", number, solve(number, onCubes, care, free,
+                WORKSPACE.get(), budget), start, budget);
+    }
+
+    /**
+     * Minimizes the outputs of a multiple-output function given as
+     * lists of cubes. The exact engine tabulates up to 64 outputs of
+     * up to 20 variables once, with output tags, and solves one cover
+     * table for all of them, so a PI that serves several outputs is
+     * paid for once. Otherwise, and with Espresso or decomposition,
+     * every output is minimized on its own.
+     *
+     * @param number Number of variables, at most 63
+     * @param on Cubes of the ON-set of every output
+     * @param dc Cubes of the don't-care set of every output
+     * @return The cover of every output
+     * @throws IllegalArgumentException if a cube has another size
+     */
+    public List<List<Cube>> minimizeOutputs(int number, List<List<Cube>> on,
+                                            List<List<Cube>> dc) {
+        List<List<Cube>> covers = new ArrayList<>();
+        if (on.size() == 1 || on.size() > 64 || number > SMALL
+                || espresso != null || decomposes(number)) {
+            for (int o = 0; o < on.size(); o++) {
+                covers.add(minimize(number, on.get(o), dc.get(o))
+                        .getCubes());
+            }
+            return covers;
+        }
+        TruthTable[] onSets = new TruthTable[on.size()];
+        TruthTable[] dcSets = new TruthTable[on.size()];
+        for (int o = 0; o < on.size(); o++) {
+            onSets[o] = table(number, on.get(o));
+            dcSets[o] = table(number, dc.get(o));
+        }
+        return Main.minimizeShared(onSets, dcSets, pool, cost, budget());
+    }
+
+    /**
+     * Minimizes a function given as truth tables.
+     *
+     * @param table ON-set of the function
+     * @param dontCares Don't-care set over the same variables
+     * @return The result
+     */
+    public MinimizationResult minimize(TruthTable table,
+                                       TruthTable dontCares) {
+        return minimize(table, dontCares, budget());
+    }
+
+    /**
+     * Minimizes a function given as truth tables within a budget.
+     *
+     * @param table ON-set of the function
+     * @param dontCares Don't-care set over the same variables
+     * @param budget Budget of the exact engine, or null for none
+     * @return The result, optimal or not
+     */
+    public MinimizationResult minimize(TruthTable table,
+                                       TruthTable dontCares,
+                                       Budget budget) {
+        long start = System.nanoTime();
+        if (espresso != null) {
+            return heuristic(table.getNumber(), espresso.minimize(
+                    cover(table), cover(dontCares)), start);
+        }
+        int number = table.getNumber();
+        budget = budget(budget, number);
+        return result(engine(number), number, minimize(table, dontCares,
+                WORKSPACE.get(), budget), start, budget);
+    }
+
+    /**
+     * Minimizes a job whose function is a minterm or cube list.
+     */
+    private MinimizationResult minimizeList(Job job, Budget budget) {
+        int number = job.getNumber();
+        if (number > 63) {
+            throw new IllegalArgumentException("invalid number");
+        }
+        // Don't-cares given as an expression are listed through its cover
+        List<Cube> dc = new ArrayList<>();
+        if (job.getDcExpression() != null) {
+            dc.addAll(compile(job.getDcExpression(), number,
+                    "invalid don't-care set").toCover());
+        }
+        checkMinterms(job.getDcMinterms(), number, "invalid don't-care set");
+        for (long d : job.getDcMinterms()) {
+            dc.add(Cube.ofMinterm(number, d));
+        }
+        if (job.getInput() == Job.Input.CUBES) {
+            return minimize(number, Job.parseCubes(job.getExpression(),
+                    number), dc, budget);
+        }
+        long[] minterms;
+        try {
+            minterms = Job.parseMinterms(job.getExpression());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid minterm");
+        }
+        if (espresso != null) {
+            checkMinterms(minterms, number, "invalid minterm");
+            return minimize(number, cover(number, minterms), dc, budget);
+        }
+        return minimize(number, minterms, minterms(dc, 0), budget);
+    }
+
+    /**
+     * Runs the exact engine, through the cover library for small
+     * functions without don't-cares and through the cache if there
+     * is one. A cover found within a budget is not stored.
+     */
+    private List<Cube> minimize(TruthTable table, TruthTable dontCares,
+                                Workspace workspace, Budget budget) {
+        if (decomposes(table.getNumber())) {
+            // Leaves merge serially: a worker waiting on a merge could
+            // run another leaf in the same scratch buffers
+            Minimizer leaf = new Minimizer(null, cost, null, cache,
+                    library, timeLimit, maxCubes, 0);
+            return new ShannonEngine(leaf, leafVariables, pool)
+                    .minimize(table, dontCares, budget);
+        }
+        if (library != null && cost == CoverSolver.Cost.CUBES
+                && table.getNumber() <= CoverLibrary.MAX_VARIABLES
+                && dontCares.cardinality() == 0) {
+            return library.lookup(table);
+        }
+        // Keys are heap copies, which mapped tables are too large for
+        if (cache == null || table.isMapped()) {
+            return solve(table, dontCares, workspace, budget);
+        }
+        return cache.get(table, dontCares, cost,
+                (on, dc) -> solve(on, dc, workspace, budget), budget);
+    }
+
+    /**
+     * Runs the exact engine on a leaf of a ShannonEngine, in the
+     * scratch buffers of the thread running it.
+     *
+     * @param budget Part of the budget of the call, or null for none
+     */
+    List<Cube> exact(TruthTable table, TruthTable dontCares,
+                     Budget budget) {
+        return minimize(table, dontCares, WORKSPACE.get(), budget);
+    }
+
+    /**
+     * Returns the cost of a cover, in the unit the cover table
+     * minimizes.
+     */
+    long cost(List<Cube> cubes) {
+        long total = 0;
+        for (Cube cube : cubes) {
+            total += cost.of(cube);
+        }
+        return total;
+    }
+
+    private boolean decomposes(int number) {
+        return leafVariables > 0 && number > leafVariables;
+    }
+
+    private String engine(int number) {
+        return decomposes(number) ? "shannon" : "qm";
+    }
+
+    /**
+     * Runs the exact engine in the scratch buffers of this thread.
+     * The two cube group arrays take turns as input and output of a
+     * column of the tabulation.
+     */
+    private List<Cube> solve(TruthTable table, TruthTable dontCares,
+                             Workspace workspace, Budget budget) {
+        int number = table.getNumber();
+        // Don't-cares merge like minterms but are not columns to cover
+        TruthTable care = workspace.table(number, 2);
+        care.or(table);
+        care.or(dontCares);
+        return solve(number, minterms(table), minterms(care), 0,
+                workspace, budget);
+    }
+
+    /**
+     * Runs the exact engine on sorted minterm lists, or on cubes that
+     * share their don't-cares, each given by its value.
+     *
+     * @param on Minterms to cover
+     * @param care Minterms that may be merged, ON-set and don't-cares
+     * @param free Don't-cares of every cube, 0 for minterms
+     * @param budget Budget, or null for none
+     */
+    private List<Cube> solve(int number, long[] on, long[] care,
+                             long free, Workspace workspace,
+                             Budget budget) {
+        List<Cube> answer = new ArrayList<>();
+        // Handle special cases
+        if (on.length == 0) {
+            return answer;
+        }
+        if (number < 63 && care.length
+                == 1L << number - Long.bitCount(free)) {
+            answer.add(Cube.universal(number));
+            return answer;
+        }
+        long[] numbers = on;
+        // Group minterms by number of 1s
+        CubeList[] current = workspace.groups(number, 0);
+        long[] value = new long[Cube.words(number)];
+        long[] mask = new long[value.length];
+        mask[0] = free;
+        for (long m : care) {
+            value[0] = m;
+            current[Long.bitCount(m)].add(value, mask, 1);
+        }
+        // Merge until a column produces no new cubes
+        long phase = Metrics.start();
+        ArrayList<Minterm> PIs = workspace.primeImplicants();
+        int turn = 1;
+        while (!Main.isEmpty(current)) {
+            CubeList[] next = workspace.groups(number, turn);
+            if (!Main.foundPI(current, next, workspace.merged(current), PIs,
+                    pool, budget)) {
+                // Out of budget: the PIs and the cubes of the column are
+                // implicants that together still cover every minterm
+                for (CubeList group : current) {
+                    for (int j = 0; j < group.count(); j++) {
+                        Minterm implicant = new Minterm();
+                        implicant.setCube(group.get(j));
+                        PIs.add(implicant);
+                    }
+                }
+                budget.approximate(0);
+                break;
+            }
+            current = next;
+            turn ^= 1;
+        }
+        Metrics.end(Metrics.Phase.PRIME_IMPLICANTS, phase, number,
+                PIs.size());
+        phase = Metrics.start();
+        for (Minterm EPI : Main.foundEPI(PIs, numbers, cost, budget)) {
+            answer.add(EPI.getCube());
+        }
+        Metrics.end(Metrics.Phase.COVER, phase, number, answer.size());
+        PIs.clear();
+        return answer;
+    }
+
+    /**
+     * Lists the minterms of a truth table as cubes.
+     */
+    private static List<Cube> cover(TruthTable table) {
+        List<Cube> cubes = new ArrayList<>();
+        for (long m = table.nextMinterm(0); m >= 0;
+             m = table.nextMinterm(m + 1)) {
+            cubes.add(Cube.ofMinterm(table.getNumber(), m));
+        }
+        return cubes;
+    }
+
+    /**
+     * Lists minterm numbers as cubes.
+     */
+    private static List<Cube> cover(int number, long[] minterms) {
+        List<Cube> cubes = new ArrayList<>(minterms.length);
+        for (long m : minterms) {
+            cubes.add(Cube.ofMinterm(number, m));
+        }
+        return cubes;
+    }
+
+    /**
+     * Sets the minterms of cubes in a new truth table.
+     *
+     * @throws IllegalArgumentException if a cube has another size
+     */
+    private static TruthTable table(int number, List<Cube> cubes) {
+        TruthTable table = new TruthTable(number);
+        for (Cube cube : cubes) {
+            if (cube.getSize() != number) {
+                throw new IllegalArgumentException("invalid cube");
+            }
+            for (long m = cube.firstMinterm(); m >= 0;
+                 m = cube.nextMinterm(m)) {
+                table.set(m);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Lists the minterms of a truth table in increasing order.
+     */
+    private static long[] minterms(TruthTable table) {
+        long[] minterms = new long[(int) table.cardinality()];
+        long m = table.nextMinterm(0);
+        for (int i = 0; i < minterms.length; i++) {
+            minterms[i] = m;
+            m = table.nextMinterm(m + 1);
+        }
+        return minterms;
+    }
+
+    /**
+     * Splits cubes of at most 63 variables over their don't-cares
+     * outside free, listing the values of the parts.
+     *
+     * @param free Don't-cares of every cube that are kept
+     * @throws IllegalArgumentException if there are too many parts
+     */
+    private static long[] minterms(List<Cube> cubes, long free) {
+        long total = 0;
+        for (Cube cube : cubes) {
+            int dashes = Long.bitCount(cube.getMask(0) & ~free);
+            total += 1L << Math.min(dashes, 31);
+            if (total > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(
+                        "too many minterms in the cubes");
+            }
+        }
+        long[] minterms = new long[(int) total];
+        int count = 0;
+        for (Cube cube : cubes) {
+            long value = cube.getValue(0);
+            long mask = cube.getMask(0) & ~free;
+            for (long m = value; m >= 0;
+                 m = Cube.nextMinterm(value, mask, m)) {
+                minterms[count++] = m;
+            }
+        }
+        return minterms;
+    }
+
+    /**
+     * Sorts minterms and drops repeated ones.
+     */
+    private static long[] distinct(long[] minterms) {
+        long[] sorted = minterms.clone();
+        Arrays.sort(sorted);
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[count++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, count);
+    }
+
+    /**
+     * Merges two sorted lists without repeats.
+     */
+    private static long[] union(long[] a, long[] b) {
+        long[] merged = new long[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < a.length || j < b.length) {
+            long next = j == b.length || i < a.length && a[i] <= b[j]
+                    ? a[i] : b[j];
+            merged[count++] = next;
+            while (i < a.length && a[i] == next) {
+                i++;
+            }
+            while (j < b.length && b[j] == next) {
+                j++;
+            }
+        }
+        return Arrays.copyOf(merged, count);
+    }
+
+    private static void checkMinterms(long[] minterms, int number,
+                                      String error) {
+        for (long m : minterms) {
+            if (m < 0 || number < 63 && m >= 1L << number) {
+                throw new IllegalArgumentException(error);
+            }
+        }
+    }
+
+    /**
+     * Validates and compiles an expression.
+     *
+     * @param expression The expression
+     * @param number Number of variables
+     * @param error Message of the exception if it is invalid
+     * @return The compiled expression
+     * @throws IllegalArgumentException if the expression is invalid
+     */
+    static Expression compile(String expression, int number,
+                              String error) {
+        long phase = Metrics.start();
+        Expression program;
+        try {
+            // Validated while it is parsed
+            program = Expression.parse(expression, number);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(error);
+        }
+        Metrics.end(Metrics.Phase.VALIDATION, phase, number,
+                expression.length());
+        return program;
+    }
+
+    /**
+     * Validates and compiles an expression as it is read.
+     *
+     * @throws IOException if reading fails
+     * @throws IllegalArgumentException if the expression is invalid
+     */
+    private static Expression compile(Reader expression, int number)
+            throws IOException {
+        long phase = Metrics.start();
+        Expression program;
+        try {
+            program = Expression.parse(expression, number);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("invalid expression");
+        }
+        Metrics.end(Metrics.Phase.VALIDATION, phase, number,
+                program.registerCount());
+        return program;
+    }
+
+    /**
+     * Validates and compiles the expression in a file, streaming it
+     * through the parser.
+     *
+     * @throws IllegalArgumentException if the file can't be read or
+     *                                  the expression is invalid
+     */
+    private static Expression read(String file, int number) {
+        try (Reader reader = Files.newBufferedReader(Path.of(file))) {
+            return compile(reader, number);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("cannot read " + file);
+        }
+    }
+
+    private Budget budget() {
+        return timeLimit > 0 || maxCubes > 0
+                ? new Budget(timeLimit, maxCubes) : null;
+    }
+
+    /**
+     * Returns the budget of a call on a table, one without limits if
+     * it has none and is decomposed: its cover isn't proven minimal.
+     */
+    private Budget budget(Budget budget, int number) {
+        return budget == null && decomposes(number) ? Budget.unlimited()
+                : budget;
+    }
+
+    /**
+     * Builds the result of an Espresso call, whose gap is unknown.
+     */
+    private MinimizationResult heuristic(int number, List<Cube> cubes,
+                                         long start) {
+        return result("espresso", number, cubes, start, false,
+                MinimizationResult.UNKNOWN_GAP);
+    }
+
+    /**
+     * Builds the result of a call, with its gap to the minimum if the
+     * budget ran out.
+     */
+    private MinimizationResult result(String engine, int number,
+                                      List<Cube> cubes, long start,
+                                      Budget budget) {
+        boolean optimal = budget == null || budget.isOptimal();
+        return result(engine, number, cubes, start, optimal,
+                optimal ? 0 : cost(cubes) - budget.getLowerBound());
+    }
+
+    private MinimizationResult result(String engine, int number,
+                                      List<Cube> cubes, long start,
+                                      boolean optimal, long gap) {
+        MinimizationResult result = new MinimizationResult(cubes,
+                System.nanoTime() - start, optimal, gap);
+        Metrics.minimized(engine, number, cubes.size(),
+                result.getLiterals(), result.getElapsedNanos());
+        return result;
+    }
+}
@@ -1,59 +1,40 @@
+/**
+ * A Prime Implicant: its cube and the outputs it is an implicant of.
+ * The minterms it covers are not stored; they follow from the cube.
+ */
 public class Minterm {
-    private String number;
-    private String binary;
+    private Cube cube;
+    private long outputs = 1;
 
-    public String getNumber() {
-        return number;
+    public Cube getCube() {
+        return cube;
     }
 
-    public void setNumber(String number) {
-        this.number = String.format("%s", number);
+    public void setCube(Cube cube) {
+        this.cube = cube;
+    }
+
+    public long getOutputs() {
+        return outputs;
+    }
+
+    public void setOutputs(long outputs) {
+        this.outputs = outputs;
     }
 
     public String getBinary() {
-        return binary;
+        return cube.toString();
     }
 
     public void setBinary(String binary) {
-        this.binary = binary;
+        this.cube = Cube.parse(binary);
     }
 
     public int numberOfOnes() {
-        int count = 0;
-        for (int i = 0; i < binary.length(); i++) {
-            if (binary.charAt(i) == '1') {
-                count++;
-            }
-        }
-        return count;
-    }
-
-    public String replace(int i, String s) {
-        String temp = "";
-        for (int j = 0; j < binary.length(); j++) {
-            if (j == i) {
-                temp = temp.concat(s);
-                continue;
-            }
-            temp = temp + binary.charAt(j);
-        }
-        return temp;
-    }
-
-    public String distance(Minterm minterm){
-        int distanceNum = -1;
-        for (int i = 0; i < binary.length(); i++) {
-            if (binary.charAt(i) != minterm.binary.charAt(i)) {
-                if(distanceNum != -1){
-                    return null;
-                }
-                distanceNum = i;
-            }
-        }
-        if(distanceNum == -1){
-            return null;
-        }
-        return replace(distanceNum, "-");
+        return cube.numberOfOnes();
     }
-}
 
+    public Cube distance(Minterm minterm){
+        return cube.distance(minterm.cube);
+    }
+}
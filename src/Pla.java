@@ -0,0 +1,545 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A multiple-output function in the Berkeley PLA format of Espresso:
+ *
+ *   .i 4            number of inputs
+ *   .o 2            number of outputs, 1 if missing
+ *   .ilb a b c d    names of the inputs, optional
+ *   .ob f g         names of the outputs, optional
+ *   .type fr        sets given by the rows, fd if missing
+ *   .p 2            number of rows, optional and ignored
+ *   01-1 10
+ *   1--0 -1
+ *   .e
+ *
+ * A row is an input cube of '0', '1' and '-' (or '2') followed by one
+ * character per output: '1' (or '4') puts the cube in the ON-set of
+ * that output, '0' (or '3') in its OFF-set, '-' (or '2') in its
+ * don't-care set and '~' in none of them. The type tells which of the
+ * sets are given: f the ON-set, fd the ON-set and don't-cares, fr the
+ * ON-set and OFF-set and fdr all three; rows in the others mean
+ * nothing. What the type leaves out is the OFF-set for f and fd and a
+ * don't-care for fr and fdr. '#' starts a comment.
+ *
+ * Files are mapped into memory and the rows parsed byte by byte
+ * straight into Cube words, so no String is made per row; a row may
+ * span two mapped chunks. Streams go through the same parser.
+ */
+public class Pla {
+    /**
+     * Which sets the rows of a PLA give.
+     */
+    public enum Type {
+        F, FD, FR, FDR
+    }
+
+    // Bytes per mapped chunk
+    private static final int CHUNK = 1 << 30;
+
+    private final int inputs;
+    private final int outputs;
+    private final Type type;
+    private final String[] inputLabels;
+    private final String[] outputLabels;
+    private final List<List<Cube>> on;
+    private final List<List<Cube>> off;
+    private final List<List<Cube>> dc;
+
+    private Pla(Parser parser) {
+        this.inputs = parser.inputs;
+        this.outputs = parser.outputs;
+        this.type = parser.type;
+        this.inputLabels = parser.inputLabels;
+        this.outputLabels = parser.outputLabels;
+        this.on = parser.on;
+        this.off = parser.off;
+        this.dc = parser.dc;
+    }
+
+    /**
+     * Reads a PLA file by mapping it into memory.
+     *
+     * @param file The file
+     * @return The function
+     * @throws IOException if the file can't be read
+     * @throws IllegalArgumentException if the file is not a valid PLA
+     */
+    public static Pla read(Path file) throws IOException {
+        return read(file, CHUNK);
+    }
+
+    /**
+     * Reads a PLA file by mapping it in chunks of a given size.
+     */
+    static Pla read(Path file, int chunk) throws IOException {
+        Parser parser = new Parser();
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long first = 0; first < size; first += chunk) {
+                parser.feed(channel.map(FileChannel.MapMode.READ_ONLY,
+                        first, Math.min(size - first, chunk)));
+            }
+        }
+        return new Pla(parser.finish());
+    }
+
+    /**
+     * Reads a PLA from a stream, such as standard input, up to its end.
+     *
+     * @param in The stream, not closed
+     * @return The function
+     * @throws IOException if the stream can't be read
+     * @throws IllegalArgumentException if the stream is not a valid PLA
+     */
+    public static Pla read(InputStream in) throws IOException {
+        Parser parser = new Parser();
+        byte[] buffer = new byte[1 << 16];
+        for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+            parser.feed(ByteBuffer.wrap(buffer, 0, n));
+        }
+        return new Pla(parser.finish());
+    }
+
+    public int getInputs() {
+        return inputs;
+    }
+
+    public int getOutputs() {
+        return outputs;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the names of the inputs, or null if the file has none.
+     */
+    public String[] getInputLabels() {
+        return inputLabels == null ? null : inputLabels.clone();
+    }
+
+    /**
+     * Returns the names of the outputs, or null if the file has none.
+     */
+    public String[] getOutputLabels() {
+        return outputLabels == null ? null : outputLabels.clone();
+    }
+
+    /**
+     * Returns the cubes of the ON-set of an output.
+     *
+     * @param output Output index, from 0
+     */
+    public List<Cube> getOnSet(int output) {
+        return new ArrayList<>(on.get(output));
+    }
+
+    /**
+     * Returns cubes of the don't-care set of an output. For fr and
+     * fdr it includes the complement of the rows, which is computed.
+     *
+     * @param output Output index, from 0
+     */
+    public List<Cube> getDontCares(int output) {
+        List<Cube> cubes = new ArrayList<>();
+        if (type == Type.FD || type == Type.FDR) {
+            cubes.addAll(dc.get(output));
+        }
+        if (type == Type.FR || type == Type.FDR) {
+            List<Cube> given = new ArrayList<>(cubes);
+            given.addAll(on.get(output));
+            given.addAll(off.get(output));
+            cubes.addAll(complement(given, inputs));
+        }
+        return cubes;
+    }
+
+    /**
+     * Returns cubes of the OFF-set of an output. For f and fd it is
+     * the complement of the rows, which is computed.
+     *
+     * @param output Output index, from 0
+     */
+    public List<Cube> getOffSet(int output) {
+        if (type == Type.FR || type == Type.FDR) {
+            return new ArrayList<>(off.get(output));
+        }
+        List<Cube> given = new ArrayList<>(on.get(output));
+        if (type == Type.FD) {
+            given.addAll(dc.get(output));
+        }
+        return complement(given, inputs);
+    }
+
+    /**
+     * Writes covers as a PLA of type f: one row per distinct cube,
+     * with a 1 for each output whose cover has it. Rows are built in
+     * one buffer and written whole.
+     *
+     * @param out Where to write, flushed but not closed
+     * @param inputs Number of inputs
+     * @param covers The cover of each output
+     * @param inputLabels Names of the inputs, or null for none
+     * @param outputLabels Names of the outputs, or null for none
+     * @throws IOException if writing fails
+     * @throws IllegalArgumentException if a cube has another size
+     */
+    public static void write(Writer out, int inputs,
+                             List<List<Cube>> covers, String[] inputLabels,
+                             String[] outputLabels) throws IOException {
+        int outputs = covers.size();
+        // Outputs of each cube, in order of first appearance
+        Map<Cube, boolean[]> rows = new LinkedHashMap<>();
+        for (int o = 0; o < outputs; o++) {
+            for (Cube cube : covers.get(o)) {
+                if (cube.getSize() != inputs) {
+                    throw new IllegalArgumentException("invalid cube");
+                }
+                boolean[] in = rows.computeIfAbsent(cube,
+                        c -> new boolean[outputs]);
+                in[o] = true;
+            }
+        }
+        BufferedWriter writer = new BufferedWriter(out, 1 << 16);
+        writer.write(".i " + inputs + "\n.o " + outputs + "\n");
+        if (inputLabels != null) {
+            writer.write(".ilb " + String.join(" ", inputLabels) + "\n");
+        }
+        if (outputLabels != null) {
+            writer.write(".ob " + String.join(" ", outputLabels) + "\n");
+        }
+        writer.write(".p " + rows.size() + "\n");
+        char[] row = new char[inputs + outputs + 2];
+        row[inputs] = ' ';
+        row[row.length - 1] = '\n';
+        for (Map.Entry<Cube, boolean[]> entry : rows.entrySet()) {
+            Cube cube = entry.getKey();
+            for (int i = 0; i < inputs; i++) {
+                row[i] = cube.charAt(i);
+            }
+            boolean[] in = entry.getValue();
+            for (int o = 0; o < outputs; o++) {
+                row[inputs + 1 + o] = in[o] ? '1' : '0';
+            }
+            writer.write(row);
+        }
+        writer.write(".e\n");
+        writer.flush();
+    }
+
+    /**
+     * Complements a cover by splitting on the variable fixed in most
+     * of its cubes. Cubes found on both sides are kept whole.
+     *
+     * @param cubes The cover
+     * @param size Number of variables
+     * @return Disjoint cubes of every assignment outside the cover
+     */
+    static List<Cube> complement(List<Cube> cubes, int size) {
+        List<Cube> result = new ArrayList<>();
+        if (cubes.isEmpty()) {
+            result.add(Cube.universal(size));
+            return result;
+        }
+        int best = 0;
+        int most = 0;
+        for (int bit = 0; bit < size; bit++) {
+            int fixed = 0;
+            for (Cube cube : cubes) {
+                if (!cube.isDontCare(bit)) {
+                    fixed++;
+                }
+            }
+            if (fixed > most) {
+                best = bit;
+                most = fixed;
+            }
+        }
+        if (most == 0) {
+            // Some cube is universal
+            return result;
+        }
+        List<List<Cube>> halves = new ArrayList<>();
+        for (boolean one : new boolean[]{false, true}) {
+            Cube literal = Cube.universal(size).lower(best, one);
+            List<Cube> cofactor = new ArrayList<>();
+            for (Cube cube : cubes) {
+                Cube part = cube.cofactor(literal);
+                if (part != null) {
+                    cofactor.add(part);
+                }
+            }
+            halves.add(complement(cofactor, size));
+        }
+        Set<Cube> high = new HashSet<>(halves.get(1));
+        for (Cube cube : halves.get(0)) {
+            result.add(high.remove(cube) ? cube : cube.lower(best, false));
+        }
+        for (Cube cube : halves.get(1)) {
+            if (high.contains(cube)) {
+                result.add(cube.lower(best, true));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Parses PLA bytes as they come. Keyword lines are collected as
+     * text, rows go straight into the words of a new Cube.
+     */
+    private static class Parser {
+        private static final int START = 0;
+        private static final int ROW = 1;
+        private static final int KEYWORD = 2;
+        private static final int COMMENT = 3;
+        private static final int END = 4;
+
+        private int inputs = -1;
+        private int outputs = 1;
+        private Type type = Type.FD;
+        private String[] inputLabels;
+        private String[] outputLabels;
+        private List<List<Cube>> on;
+        private List<List<Cube>> off;
+        private List<List<Cube>> dc;
+
+        private int state = START;
+        private int line = 1;
+        private final StringBuilder keyword = new StringBuilder();
+        // The row being read: characters so far, cube words, outputs
+        private int column;
+        private long[] value;
+        private long[] mask;
+        private byte[] outputChars;
+
+        void feed(ByteBuffer buffer) {
+            while (buffer.hasRemaining()) {
+                accept(buffer.get());
+            }
+        }
+
+        Parser finish() {
+            endLine();
+            if (inputs < 0) {
+                throw new IllegalArgumentException("invalid PLA: no .i");
+            }
+            start();
+            return this;
+        }
+
+        private void accept(byte b) {
+            if (b == '\n') {
+                endLine();
+                line++;
+                return;
+            }
+            switch (state) {
+                case START:
+                    if (b == '#') {
+                        state = COMMENT;
+                    }
+                    else if (b == '.') {
+                        state = KEYWORD;
+                        keyword.setLength(0);
+                    }
+                    else if (!isSpace(b)) {
+                        state = ROW;
+                        row(b);
+                    }
+                    break;
+                case ROW:
+                    row(b);
+                    break;
+                case KEYWORD:
+                    keyword.append((char) b);
+                    break;
+                default:
+                    // Comments and everything after .e
+                    break;
+            }
+        }
+
+        private void row(byte b) {
+            if (isSpace(b)) {
+                return;
+            }
+            if (b == '#') {
+                // The rest of the line is a comment
+                endRow();
+                state = COMMENT;
+                return;
+            }
+            if (column == 0) {
+                start();
+                value = new long[Cube.words(inputs)];
+                mask = new long[value.length];
+            }
+            if (column < inputs) {
+                int bit = inputs - 1 - column;
+                if (b == '1') {
+                    value[bit >>> 6] |= 1L << bit;
+                }
+                else if (b == '-' || b == '2') {
+                    mask[bit >>> 6] |= 1L << bit;
+                }
+                else if (b != '0') {
+                    throw error("invalid input");
+                }
+            }
+            else if (column < inputs + outputs) {
+                outputChars[column - inputs] = b;
+            }
+            else {
+                throw error("too many columns");
+            }
+            column++;
+        }
+
+        private void endLine() {
+            if (state == ROW) {
+                endRow();
+            }
+            else if (state == KEYWORD) {
+                keyword(keyword.toString().trim().split("\\s+"));
+            }
+            if (state != END) {
+                state = START;
+            }
+        }
+
+        private void endRow() {
+            if (column == 0) {
+                return;
+            }
+            if (column != inputs + outputs) {
+                throw error("too few columns");
+            }
+            Cube cube = new Cube(inputs, value, mask);
+            for (int o = 0; o < outputs; o++) {
+                switch (outputChars[o]) {
+                    case '1':
+                    case '4':
+                        on.get(o).add(cube);
+                        break;
+                    case '0':
+                    case '3':
+                        off.get(o).add(cube);
+                        break;
+                    case '-':
+                    case '2':
+                        dc.get(o).add(cube);
+                        break;
+                    case '~':
+                        break;
+                    default:
+                        throw error("invalid output");
+                }
+            }
+            column = 0;
+        }
+
+        private void keyword(String[] words) {
+            boolean first = on == null;
+            switch (words[0]) {
+                case "i":
+                    inputs = number(words, first);
+                    break;
+                case "o":
+                    outputs = number(words, first);
+                    break;
+                case "ilb":
+                    inputLabels = Arrays.copyOfRange(words, 1, words.length);
+                    break;
+                case "ob":
+                    outputLabels = Arrays.copyOfRange(words, 1,
+                            words.length);
+                    break;
+                case "type":
+                    try {
+                        type = Type.valueOf(words[1].toUpperCase(
+                                Locale.ROOT));
+                    } catch (RuntimeException e) {
+                        throw error("invalid .type");
+                    }
+                    break;
+                case "p":
+                    break;
+                case "e":
+                case "end":
+                    state = END;
+                    break;
+                default:
+                    throw error("unsupported ." + words[0]);
+            }
+        }
+
+        /**
+         * Reads the count of .i or .o, which can't change once rows
+         * have been read.
+         */
+        private int number(String[] words, boolean first) {
+            try {
+                int n = Integer.parseInt(words[1]);
+                if (first && n > 0) {
+                    return n;
+                }
+            } catch (RuntimeException e) {
+                // Reported below
+            }
+            throw error("invalid ." + words[0]);
+        }
+
+        /**
+         * Sets up the output sets once the header is over.
+         */
+        private void start() {
+            if (on != null) {
+                return;
+            }
+            if (inputs < 0) {
+                throw error("row before .i");
+            }
+            if (inputLabels != null && inputLabels.length != inputs
+                    || outputLabels != null
+                    && outputLabels.length != outputs) {
+                throw error("wrong number of labels");
+            }
+            on = new ArrayList<>();
+            off = new ArrayList<>();
+            dc = new ArrayList<>();
+            for (int o = 0; o < outputs; o++) {
+                on.add(new ArrayList<>());
+                off.add(new ArrayList<>());
+                dc.add(new ArrayList<>());
+            }
+            outputChars = new byte[outputs];
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("invalid PLA: " + message
+                    + " at line " + line);
+        }
+
+        private static boolean isSpace(byte b) {
+            return b == ' ' || b == '\t' || b == '\r' || b == '|';
+        }
+    }
+}
@@ -0,0 +1,328 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bounded cache of minimized covers keyed by the ON-set and
+ * don't-care bitmaps. Entries are evicted in least recently used
+ * order once the cache holds more than a fixed number of entries or
+ * of bitmap words.
+ *
+ * Functions of few variables are first brought to a canonical form
+ * under permutation and negation of the inputs, so one cached cover
+ * answers every function of the class: the cover is mapped back
+ * through the same permutation and negation, which keeps the number
+ * of cubes and literals. Negating the output is not folded in since
+ * a cover of the complement is no cover of the function.
+ */
+public class ResultCache {
+    // Patterns of the six lowest variables inside one word
+    private static final long[] PATTERNS = {
+            0xAAAAAAAAAAAAAAAAL, 0xCCCCCCCCCCCCCCCCL, 0xF0F0F0F0F0F0F0F0L,
+            0xFF00FF00FF00FF00L, 0xFFFF0000FFFF0000L, 0xFFFFFFFF00000000L
+    };
+
+    private final int maxEntries;
+    private final long maxWords;
+    private final int maxCanonical;
+    private final LinkedHashMap<Key, List<Cube>> entries =
+            new LinkedHashMap<>(16, 0.75f, true);
+    private long words;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxEntries Maximum number of cached covers
+     * @param maxWords Maximum number of bitmap words over all keys
+     * @param maxCanonical Largest number of variables that is
+     *                     canonicalized, at most 6; 0 for none
+     */
+    public ResultCache(int maxEntries, long maxWords, int maxCanonical) {
+        if (maxCanonical > 6) {
+            throw new IllegalArgumentException(
+                    "canonical form is limited to 6 variables");
+        }
+        this.maxEntries = maxEntries;
+        this.maxWords = maxWords;
+        this.maxCanonical = maxCanonical;
+    }
+
+    /**
+     * Looks up a function, computing and caching its cover on a miss.
+     * The computation runs outside the lock, so two threads missing
+     * on the same function may both compute it.
+     *
+     * @param table ON-set of the function
+     * @param dontCares Don't-care set over the same variables
+     * @param cost Cost the cover was minimized for
+     * @param minimizer Computes the cover of a function
+     * @return The cover of the function
+     */
+    public List<Cube> get(TruthTable table, TruthTable dontCares,
+                          CoverSolver.Cost cost, Computation minimizer) {
+        return get(table, dontCares, cost, minimizer, null);
+    }
+
+    /**
+     * Looks up a function, computing its cover within a budget on a
+     * miss. The cover is cached only if the budget didn't run out.
+     *
+     * @param budget Budget the computation runs in, or null for none
+     */
+    List<Cube> get(TruthTable table, TruthTable dontCares,
+                   CoverSolver.Cost cost, Computation minimizer,
+                   Budget budget) {
+        int number = table.getNumber();
+        if (number > maxCanonical) {
+            Key key = new Key(number, cost, copy(table), copy(dontCares));
+            List<Cube> cover = lookup(key);
+            if (cover == null) {
+                cover = minimizer.minimize(table, dontCares);
+                if (budget == null || budget.isOptimal()) {
+                    store(key, cover);
+                }
+            }
+            return cover;
+        }
+        Canonical canonical = new Canonical(number, table.getWord(0),
+                dontCares.getWord(0));
+        Key key = new Key(number, cost, new long[]{canonical.on},
+                new long[]{canonical.dc});
+        List<Cube> cover = lookup(key);
+        if (cover == null) {
+            TruthTable on = new TruthTable(number);
+            on.setWord(0, canonical.on);
+            TruthTable dc = new TruthTable(number);
+            dc.setWord(0, canonical.dc);
+            cover = minimizer.minimize(on, dc);
+            if (budget == null || budget.isOptimal()) {
+                store(key, cover);
+            }
+        }
+        return canonical.restore(cover);
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        long lookups = hits + misses;
+        return String.format("cache: %d hits, %d misses (%.1f%%), "
+                        + "%d evictions, %d entries", hits, misses,
+                lookups == 0 ? 0.0 : 100.0 * hits / lookups,
+                evictions, entries.size());
+    }
+
+    private synchronized List<Cube> lookup(Key key) {
+        List<Cube> cover = entries.get(key);
+        if (cover == null) {
+            misses++;
+        }
+        else {
+            hits++;
+        }
+        return cover;
+    }
+
+    private synchronized void store(Key key, List<Cube> cover) {
+        if (entries.put(key, cover) == null) {
+            words += key.weight();
+        }
+        // Evict the least recently used covers
+        Map.Entry<Key, List<Cube>> eldest;
+        while ((entries.size() > maxEntries || words > maxWords)
+                && entries.size() > 1) {
+            eldest = entries.entrySet().iterator().next();
+            words -= eldest.getKey().weight();
+            entries.remove(eldest.getKey());
+            evictions++;
+        }
+    }
+
+    private static long[] copy(TruthTable table) {
+        long[] words = new long[table.wordCount()];
+        for (int w = 0; w < words.length; w++) {
+            words[w] = table.getWord(w);
+        }
+        return words;
+    }
+
+    /**
+     * Computes the cover of a function on a cache miss.
+     */
+    public interface Computation {
+        List<Cube> minimize(TruthTable table, TruthTable dontCares);
+    }
+
+    private static final class Key {
+        private final int number;
+        private final CoverSolver.Cost cost;
+        private final long[] on;
+        private final long[] dc;
+        private final int hash;
+
+        Key(int number, CoverSolver.Cost cost, long[] on, long[] dc) {
+            this.number = number;
+            this.cost = cost;
+            this.on = on;
+            this.dc = dc;
+            this.hash = 31 * (31 * (31 * number + cost.hashCode())
+                    + Arrays.hashCode(on)) + Arrays.hashCode(dc);
+        }
+
+        long weight() {
+            return on.length + dc.length;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return number == key.number && cost == key.cost
+                    && Arrays.equals(on, key.on)
+                    && Arrays.equals(dc, key.dc);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * The smallest (ON, DC) word pair over every permutation and
+     * negation of the inputs of a function of at most 6 variables.
+     * Position p of the canonical function reads bit perm[p] of the
+     * original one, negated if neg[p] is set.
+     */
+    private static final class Canonical {
+        private final int number;
+        private long on;
+        private long dc;
+        private final int[] perm;
+        private final boolean[] neg;
+
+        Canonical(int number, long on, long dc) {
+            this.number = number;
+            this.on = on;
+            this.dc = dc;
+            int[] current = new int[number];
+            boolean[] flipped = new boolean[number];
+            for (int p = 0; p < number; p++) {
+                current[p] = p;
+            }
+            perm = current.clone();
+            neg = new boolean[number];
+            // Heap's algorithm over the permutations; for each one a
+            // Gray code walks all negations and returns to the start
+            int[] c = new int[number];
+            int p = 0;
+            while (true) {
+                for (int g = 1; g <= 1 << number; g++) {
+                    int bit = Integer.numberOfTrailingZeros(g);
+                    if (bit == number) {
+                        bit = number - 1;
+                    }
+                    on = negate(on, bit);
+                    dc = negate(dc, bit);
+                    flipped[bit] = !flipped[bit];
+                    if (Long.compareUnsigned(on, this.on) < 0
+                            || on == this.on
+                            && Long.compareUnsigned(dc, this.dc) < 0) {
+                        this.on = on;
+                        this.dc = dc;
+                        System.arraycopy(current, 0, perm, 0, number);
+                        System.arraycopy(flipped, 0, neg, 0, number);
+                    }
+                }
+                while (p < number && c[p] >= p) {
+                    c[p] = 0;
+                    p++;
+                }
+                if (p >= number) {
+                    break;
+                }
+                int other = p % 2 == 0 ? 0 : c[p];
+                on = swap(on, other, p);
+                dc = swap(dc, other, p);
+                int t = current[other];
+                current[other] = current[p];
+                current[p] = t;
+                boolean f = flipped[other];
+                flipped[other] = flipped[p];
+                flipped[p] = f;
+                c[p]++;
+                p = 0;
+            }
+        }
+
+        /**
+         * Maps a cover of the canonical function back to the original.
+         */
+        List<Cube> restore(List<Cube> cover) {
+            List<Cube> cubes = new ArrayList<>(cover.size());
+            for (Cube cube : cover) {
+                long value = 0;
+                long mask = 0;
+                for (int p = 0; p < number; p++) {
+                    long to = 1L << perm[p];
+                    if (cube.isDontCare(p)) {
+                        mask |= to;
+                    }
+                    else if (cube.isOne(p) != neg[p]) {
+                        value |= to;
+                    }
+                }
+                cubes.add(new Cube(number, value, mask));
+            }
+            return cubes;
+        }
+
+        /**
+         * Exchanges the rows where the variable at bit is 0 and 1.
+         */
+        private long negate(long word, int bit) {
+            int shift = 1 << bit;
+            long ones = PATTERNS[bit] & mask();
+            return (word & ones) >>> shift | (word & ~ones) << shift;
+        }
+
+        /**
+         * Exchanges the variables at two bit positions, a < b.
+         */
+        private long swap(long word, int a, int b) {
+            if (a == b) {
+                return word;
+            }
+            int shift = (1 << b) - (1 << a);
+            long move = PATTERNS[a] & ~PATTERNS[b] & mask();
+            return word & ~(move | move << shift)
+                    | (word & move) << shift | (word >>> shift) & move;
+        }
+
+        private long mask() {
+            return number >= 6 ? -1L : (1L << (1 << number)) - 1;
+        }
+    }
+}
@@ -0,0 +1,351 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Minimizes large functions by Shannon decomposition. A function f is
+ * split on its first variable A into the cofactors f(A=0) and f(A=1),
+ * each cofactor is minimized on its own, recursively, and the two
+ * covers are merged back. Cofactors of at most leafVariables variables
+ * are left to the exact engine, so the tabulation only ever sees small
+ * functions, and the two halves of every split are fork/join tasks
+ * that spread the leaves over the cores of the pool.
+ *
+ * Splitting on the first variable makes the cofactors the two halves
+ * of the truth table, copied word by word. Cofactors that are the same
+ * function are minimized once, without A, and each distinct leaf is
+ * tabulated once per call: the cofactors of a structured function on
+ * its first variables repeat a lot.
+ *
+ * Merging puts A' in the cubes of f(A=0) and A in those of f(A=1). A
+ * cube found in both covers becomes one cube without A, and so does a
+ * cube whose other half is inside the care set of the other cofactor.
+ * Cubes made redundant by these larger cubes, those contained in them
+ * included, are then removed: the cubes covering an ON minterm alone
+ * are kept, and the others, largest first, only if they cover an ON
+ * minterm not yet covered.
+ *
+ * The cover is a valid one of the function but not proven minimal.
+ * Restricting a cover of f to A=0 or A=1 gives covers of the cofactors
+ * at no greater cost, so the largest lower bound of the leaves is one
+ * of f too: a leaf solved exactly bounds it by its own cost, one that
+ * ran out of budget by the bound of its search. The cover is minimal
+ * when its cost meets that bound.
+ *
+ * Each leaf gets a part of the budget of the call, so the leaves stop
+ * together when it is cancelled or its deadline passes.
+ */
+public class ShannonEngine {
+    private final Minimizer leaf;
+    private final int leafVariables;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates an engine.
+     *
+     * @param leaf Minimizer for the leaves, which must not decompose
+     * @param leafVariables Largest cofactor left to the leaves, at
+     *                      least 6
+     * @param pool Pool to run the cofactors in, or null to run them
+     *             one after the other
+     * @throws IllegalArgumentException if leafVariables is below 6
+     */
+    public ShannonEngine(Minimizer leaf, int leafVariables,
+                         ForkJoinPool pool) {
+        if (leafVariables < 6) {
+            throw new IllegalArgumentException("invalid leaf size");
+        }
+        this.leaf = leaf;
+        this.leafVariables = leafVariables;
+        this.pool = pool;
+    }
+
+    /**
+     * Minimizes a function given as truth tables.
+     *
+     * @param table ON-set of the function, at most 63 variables
+     * @param dontCares Don't-care set over the same variables
+     * @return The cover, no cubes for 0 and the universal cube for 1
+     */
+    public List<Cube> minimize(TruthTable table, TruthTable dontCares) {
+        return minimize(table, dontCares, null);
+    }
+
+    /**
+     * Minimizes a function given as truth tables within a budget. The
+     * budget tells afterwards if the cover is proven minimal, and
+     * gives a lower bound on the cost of any cover if it is not.
+     *
+     * @param table ON-set of the function, at most 63 variables
+     * @param dontCares Don't-care set over the same variables
+     * @param budget Budget of the call, or null for none
+     * @return The cover, no cubes for 0 and the universal cube for 1
+     */
+    public List<Cube> minimize(TruthTable table, TruthTable dontCares,
+                               Budget budget) {
+        Split task = new Split(table, dontCares, budget,
+                new ConcurrentHashMap<>());
+        Cover cover = pool == null ? task.compute() : pool.invoke(task);
+        if (budget != null && leaf.cost(cover.cubes) > cover.bound) {
+            budget.approximate(cover.bound);
+        }
+        return cover.cubes;
+    }
+
+    /**
+     * Minimizes one cofactor, splitting it again if it is too large
+     * for a leaf.
+     */
+    private class Split extends RecursiveTask<Cover> {
+        private static final long serialVersionUID = 1L;
+
+        private final TruthTable on;
+        private final TruthTable dc;
+        private final Budget budget;
+        // Covers of the leaves solved so far, by their tables
+        private final Map<Leaf, Cover> leaves;
+
+        Split(TruthTable on, TruthTable dc, Budget budget,
+              Map<Leaf, Cover> leaves) {
+            this.on = on;
+            this.dc = dc;
+            this.budget = budget;
+            this.leaves = leaves;
+        }
+
+        @Override
+        protected Cover compute() {
+            int number = on.getNumber();
+            if (number <= leafVariables) {
+                Leaf key = new Leaf(on, dc);
+                Cover cover = leaves.get(key);
+                if (cover == null) {
+                    // Two tasks may solve the same leaf, rarely
+                    Budget part = budget == null ? null : budget.part();
+                    List<Cube> cubes = leaf.exact(on, dc, part);
+                    cover = new Cover(cubes, part == null
+                            || part.isOptimal() ? leaf.cost(cubes)
+                            : part.getLowerBound());
+                    leaves.putIfAbsent(key, cover);
+                }
+                return cover;
+            }
+            if (on.cardinality() == 0) {
+                return new Cover(new ArrayList<>(), 0);
+            }
+            TruthTable on0 = half(on, 0);
+            TruthTable on1 = half(on, 1);
+            TruthTable dc0 = half(dc, 0);
+            TruthTable dc1 = half(dc, 1);
+            if (same(on0, on1) && same(dc0, dc1)) {
+                Cover cover = new Split(on0, dc0, budget, leaves).compute();
+                List<Cube> cubes = new ArrayList<>();
+                for (Cube cube : cover.cubes) {
+                    cubes.add(lift(cube, 0, true));
+                }
+                return new Cover(cubes, cover.bound);
+            }
+            Cover cover0;
+            Cover cover1;
+            Split right = new Split(on1, dc1, budget, leaves);
+            if (pool == null) {
+                cover0 = new Split(on0, dc0, budget, leaves).compute();
+                cover1 = right.compute();
+            }
+            else {
+                right.fork();
+                cover0 = new Split(on0, dc0, budget, leaves).compute();
+                cover1 = right.join();
+            }
+            // Care sets of the cofactors, for raising A
+            on0.or(dc0);
+            on1.or(dc1);
+            return new Cover(irredundant(merge(cover0.cubes, cover1.cubes,
+                    on0, on1), on), Math.max(cover0.bound, cover1.bound));
+        }
+    }
+
+    /**
+     * The cover of a cofactor, with a lower bound on the cost of any
+     * of its covers.
+     */
+    private static class Cover {
+        private final List<Cube> cubes;
+        private final long bound;
+
+        Cover(List<Cube> cubes, long bound) {
+            this.cubes = cubes;
+            this.bound = bound;
+        }
+    }
+
+    /**
+     * Merges the covers of the two cofactors, removing A from the
+     * cubes that allow it.
+     *
+     * @param care0 Care set of f(A=0)
+     * @param care1 Care set of f(A=1)
+     * @return The cubes over one more variable
+     */
+    private static List<Cube> merge(List<Cube> cover0, List<Cube> cover1,
+                                    TruthTable care0, TruthTable care1) {
+        Set<Cube> both = new HashSet<>(cover0);
+        both.retainAll(cover1);
+        List<Cube> cubes = new ArrayList<>();
+        for (Cube cube : both) {
+            cubes.add(lift(cube, 0, true));
+        }
+        for (Cube cube : cover0) {
+            if (!both.contains(cube)) {
+                cubes.add(lift(cube, 0, isInside(cube, care1)));
+            }
+        }
+        for (Cube cube : cover1) {
+            if (!both.contains(cube)) {
+                cubes.add(lift(cube, 1, isInside(cube, care0)));
+            }
+        }
+        return cubes;
+    }
+
+    /**
+     * Removes the cubes whose ON minterms are all covered by others.
+     *
+     * @param cubes A cover of the function
+     * @param on ON-set of the function
+     * @return The remaining cubes
+     */
+    private static List<Cube> irredundant(List<Cube> cubes,
+                                          TruthTable on) {
+        int number = on.getNumber();
+        // Minterms covered at least once and at least twice
+        TruthTable once = table(number);
+        TruthTable twice = table(number);
+        for (Cube cube : cubes) {
+            for (long m = cube.firstMinterm(); m >= 0;
+                 m = cube.nextMinterm(m)) {
+                if (once.get(m)) {
+                    twice.set(m);
+                }
+                once.set(m);
+            }
+        }
+        List<Cube> kept = new ArrayList<>();
+        List<Cube> others = new ArrayList<>();
+        TruthTable covered = table(number);
+        for (Cube cube : cubes) {
+            boolean alone = false;
+            for (long m = cube.firstMinterm(); m >= 0 && !alone;
+                 m = cube.nextMinterm(m)) {
+                alone = on.get(m) && !twice.get(m);
+            }
+            (alone ? kept : others).add(cube);
+        }
+        for (Cube cube : kept) {
+            setAll(covered, cube);
+        }
+        others.sort(Comparator.comparingInt(Cube::literals));
+        for (Cube cube : others) {
+            boolean needed = false;
+            for (long m = cube.firstMinterm(); m >= 0 && !needed;
+                 m = cube.nextMinterm(m)) {
+                needed = on.get(m) && !covered.get(m);
+            }
+            if (needed) {
+                kept.add(cube);
+                setAll(covered, cube);
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Returns the cube over one more variable, the new first one.
+     *
+     * @param value Value of the new variable, ignored if it is a dash
+     * @param dash Whether the new variable is a don't-care
+     */
+    private static Cube lift(Cube cube, int value, boolean dash) {
+        int size = cube.getSize() + 1;
+        long bit = 1L << (size - 1);
+        return new Cube(size, cube.getValue(0) | (dash ? 0 : value * bit),
+                cube.getMask(0) | (dash ? bit : 0));
+    }
+
+    /**
+     * The ON-set and don't-cares of a leaf, as a map key.
+     */
+    private static class Leaf {
+        private final long[] words;
+
+        Leaf(TruthTable on, TruthTable dc) {
+            int count = on.wordCount();
+            words = new long[2 * count];
+            for (int w = 0; w < count; w++) {
+                words[w] = on.getWord(w);
+                words[count + w] = dc.getWord(w);
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Leaf && Arrays.equals(words, ((Leaf) o).words);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(words);
+        }
+    }
+
+    private static boolean isInside(Cube cube, TruthTable table) {
+        for (long m = cube.firstMinterm(); m >= 0;
+             m = cube.nextMinterm(m)) {
+            if (!table.get(m)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void setAll(TruthTable table, Cube cube) {
+        for (long m = cube.firstMinterm(); m >= 0;
+             m = cube.nextMinterm(m)) {
+            table.set(m);
+        }
+    }
+
+    /**
+     * Copies a cofactor on the first variable, which is the low half
+     * of the table for A=0 and the high half for A=1.
+     */
+    private static TruthTable half(TruthTable table, int value) {
+        TruthTable half = table(table.getNumber() - 1);
+        int words = half.wordCount();
+        for (int w = 0; w < words; w++) {
+            half.setWord(w, table.getWord(value * words + w));
+        }
+        return half;
+    }
+
+    private static boolean same(TruthTable a, TruthTable b) {
+        for (int w = 0; w < a.wordCount(); w++) {
+            if (a.getWord(w) != b.getWord(w)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static TruthTable table(int number) {
+        return number >= TruthTable.MAPPED_VARIABLES
+                ? TruthTable.mapTemporary(number) : new TruthTable(number);
+    }
+}
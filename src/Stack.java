@@ -1,3 +1,9 @@
+import java.util.Arrays;
+
+/**
+ * A stack of characters for Main.findMin, which ScalingHarness keeps
+ * as its oracle.
+ */
 public class Stack {
     char[] charArray = new char[100];
     int top;
@@ -5,6 +11,9 @@ public class Stack {
         top = -1;
     }
     public void push(char ch) {
+        if (top + 1 == charArray.length) {
+            charArray = Arrays.copyOf(charArray, 2 * charArray.length);
+        }
         charArray[++top] = ch;
     }
     public void pop() {
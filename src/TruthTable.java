@@ -0,0 +1,305 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The ON-set of a boolean function stored as a bitmap,
+ * one bit per assignment and 64 assignments per word.
+ * Bit j of word w belongs to minterm 64 * w + j.
+ *
+ * The bitmap lives on the heap or, for large functions, in a file
+ * mapped into memory in chunks of 128 MB, where it takes no heap and
+ * is paged in and out by the operating system. The file holds the
+ * words in little-endian order. Every bulk operation walks the words
+ * in increasing order, so a mapped table is read and written one page
+ * after the other.
+ */
+public class TruthTable {
+    /** Number of variables from which scratch tables are mapped. */
+    public static final int MAPPED_VARIABLES = 28;
+    // Words per mapped chunk
+    private static final int CHUNK_SHIFT = 24;
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+
+    // Patterns of the six lowest variables inside one word
+    private static final long[] PATTERNS = {
+            0xAAAAAAAAAAAAAAAAL, 0xCCCCCCCCCCCCCCCCL, 0xF0F0F0F0F0F0F0F0L,
+            0xFF00FF00FF00FF00L, 0xFFFF0000FFFF0000L, 0xFFFFFFFF00000000L
+    };
+
+    private final int number;
+    private final int wordCount;
+    // Exactly one of the two is set
+    private final long[] words;
+    private final MappedByteBuffer[] chunks;
+
+    /**
+     * Creates an empty truth table on the heap.
+     *
+     * @param number Number of variables
+     */
+    public TruthTable(int number) {
+        this.number = number;
+        this.wordCount = wordCount(number);
+        this.words = new long[wordCount];
+        this.chunks = null;
+    }
+
+    private TruthTable(int number, MappedByteBuffer[] chunks) {
+        this.number = number;
+        this.wordCount = wordCount(number);
+        this.words = null;
+        this.chunks = chunks;
+    }
+
+    private static int wordCount(int number) {
+        if (number > 36) {
+            throw new IllegalArgumentException(
+                    "too many variables for a truth table: " + number);
+        }
+        return (int) Math.max(1, (1L << number) >>> 6);
+    }
+
+    /**
+     * Maps a truth table onto a file, creating the file if it doesn't
+     * exist. A new file starts as the empty function; an existing one
+     * keeps its minterms, so a table written by one process can be
+     * read by another. Changes reach the file when the operating
+     * system writes the pages back, or on force().
+     *
+     * @param number Number of variables
+     * @param file The file, 2^number / 8 bytes long
+     * @return The table
+     * @throws UncheckedIOException if the file can't be mapped
+     */
+    public static TruthTable map(int number, Path file) {
+        int count = wordCount(number);
+        MappedByteBuffer[] chunks =
+                new MappedByteBuffer[(count + CHUNK_MASK) >>> CHUNK_SHIFT];
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            for (int c = 0; c < chunks.length; c++) {
+                long first = (long) c << CHUNK_SHIFT;
+                long size = Math.min(count - first, 1L << CHUNK_SHIFT);
+                // The mapping stays valid after the channel is closed
+                chunks[c] = channel.map(FileChannel.MapMode.READ_WRITE,
+                        first << 3, size << 3);
+                chunks[c].order(ByteOrder.LITTLE_ENDIAN);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new TruthTable(number, chunks);
+    }
+
+    /**
+     * Maps an empty truth table onto a temporary file, which is
+     * removed once mapped where the system allows it and otherwise
+     * when the JVM exits.
+     *
+     * @param number Number of variables
+     * @return The table
+     * @throws UncheckedIOException if the file can't be created
+     */
+    public static TruthTable mapTemporary(int number) {
+        Path file;
+        try {
+            file = Files.createTempFile("truth-table", ".bin");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        TruthTable table = map(number, file);
+        try {
+            Files.delete(file);
+        } catch (IOException e) {
+            file.toFile().deleteOnExit();
+        }
+        return table;
+    }
+
+    /**
+     * Generates the truth table of an expression with bit-sliced
+     * evaluation: each call to evaluateWord fills 64 rows.
+     *
+     * @param expression The compiled expression
+     * @return Truth table of the expression
+     */
+    public static TruthTable of(Expression expression) {
+        TruthTable table = new TruthTable(expression.getNumber());
+        table.fill(expression,
+                new long[expression.registerCount()]);
+        return table;
+    }
+
+    /**
+     * Overwrites this table with the truth table of an expression
+     * over the same variables, without allocating.
+     *
+     * @param expression The compiled expression
+     * @param registers Scratch array of at least registerCount() entries
+     */
+    public void fill(Expression expression, long[] registers) {
+        for (int w = 0; w < wordCount; w++) {
+            setWord(w, expression.evaluateWord(w, registers));
+        }
+        setWord(wordCount - 1, getWord(wordCount - 1) & lastWordMask());
+    }
+
+    /**
+     * Removes every minterm.
+     */
+    public void clear() {
+        if (words != null) {
+            Arrays.fill(words, 0);
+            return;
+        }
+        for (int w = 0; w < wordCount; w++) {
+            setWord(w, 0);
+        }
+    }
+
+    /**
+     * Checks if the table is kept in a mapped file.
+     *
+     * @return true if mapped, false if on the heap
+     */
+    public boolean isMapped() {
+        return chunks != null;
+    }
+
+    /**
+     * Writes the changes of a mapped table to its file. Does nothing
+     * for a table on the heap.
+     */
+    public void force() {
+        if (chunks != null) {
+            for (MappedByteBuffer chunk : chunks) {
+                chunk.force();
+            }
+        }
+    }
+
+    /**
+     * Returns the values of a variable for a block of 64 assignments.
+     *
+     * @param bit Bit position of the variable in the minterm number
+     * @param word Index of the block of 64 assignments
+     * @return Word whose bit j is the variable's value in row 64 * word + j
+     */
+    public static long pattern(int bit, long word) {
+        if (bit < 6) {
+            return PATTERNS[bit];
+        }
+        return (word >>> (bit - 6) & 1) != 0 ? -1L : 0;
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
+    public int wordCount() {
+        return wordCount;
+    }
+
+    public long getWord(int word) {
+        if (words != null) {
+            return words[word];
+        }
+        return chunks[word >>> CHUNK_SHIFT].getLong((word & CHUNK_MASK) << 3);
+    }
+
+    public void setWord(int word, long value) {
+        if (words != null) {
+            words[word] = value;
+        }
+        else {
+            chunks[word >>> CHUNK_SHIFT].putLong((word & CHUNK_MASK) << 3,
+                    value);
+        }
+    }
+
+    public boolean get(long minterm) {
+        return (getWord((int) (minterm >>> 6)) >>> minterm & 1) != 0;
+    }
+
+    public void set(long minterm) {
+        int word = (int) (minterm >>> 6);
+        setWord(word, getWord(word) | 1L << minterm);
+    }
+
+    /**
+     * Adds every minterm of another table over the same variables.
+     *
+     * @param other The table to add
+     */
+    public void or(TruthTable other) {
+        for (int w = 0; w < wordCount; w++) {
+            setWord(w, getWord(w) | other.getWord(w));
+        }
+    }
+
+    /**
+     * Removes every minterm of another table over the same variables.
+     *
+     * @param other The table to remove
+     */
+    public void andNot(TruthTable other) {
+        for (int w = 0; w < wordCount; w++) {
+            setWord(w, getWord(w) & ~other.getWord(w));
+        }
+    }
+
+    /**
+     * Counts the minterms of the ON-set.
+     *
+     * @return Number of set bits
+     */
+    public long cardinality() {
+        long count = 0;
+        for (int w = 0; w < wordCount; w++) {
+            count += Long.bitCount(getWord(w));
+        }
+        return count;
+    }
+
+    /**
+     * Checks if every assignment is in the ON-set.
+     *
+     * @return true if the function is constant 1
+     */
+    public boolean isFull() {
+        return cardinality() == 1L << number;
+    }
+
+    /**
+     * Finds the next minterm of the ON-set.
+     *
+     * @param from First minterm number to look at
+     * @return The next minterm at or after from, or -1 if there is none
+     */
+    public long nextMinterm(long from) {
+        int w = (int) (from >>> 6);
+        if (w >= wordCount) {
+            return -1;
+        }
+        long word = getWord(w) & (-1L << from);
+        while (word == 0) {
+            if (++w == wordCount) {
+                return -1;
+            }
+            word = getWord(w);
+        }
+        return ((long) w << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    private long lastWordMask() {
+        return number >= 6 ? -1L : (1L << (1 << number)) - 1;
+    }
+}
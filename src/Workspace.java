@@ -0,0 +1,114 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Scratch buffers of one thread for the Minimizer: truth tables,
+ * cube groups and merge marks are kept per number of variables and
+ * cleared between calls instead of being allocated again.
+ */
+class Workspace {
+    private final TruthTable[][] tables =
+            new TruthTable[TruthTable.MAPPED_VARIABLES][];
+    private final CubeList[][][] groups = new CubeList[64][][];
+    private boolean[][] merged = new boolean[0][];
+    private long[] registers = new long[16];
+    private final ArrayList<Minterm> PIs = new ArrayList<>();
+
+    /**
+     * Returns a cleared truth table. Tables of MAPPED_VARIABLES or
+     * more variables are new temporary mapped tables, which take no
+     * heap and are not kept.
+     *
+     * @param number Number of variables
+     * @param index Which of the three tables of that size
+     * @return The table, empty
+     */
+    TruthTable table(int number, int index) {
+        if (number >= TruthTable.MAPPED_VARIABLES) {
+            // Rejected by TruthTable if too large
+            return TruthTable.mapTemporary(number);
+        }
+        if (tables[number] == null) {
+            tables[number] = new TruthTable[3];
+        }
+        TruthTable table = tables[number][index];
+        if (table == null) {
+            table = new TruthTable(number);
+            tables[number][index] = table;
+        }
+        else {
+            table.clear();
+        }
+        return table;
+    }
+
+    /**
+     * Returns cleared cube groups, one per number of 1s.
+     *
+     * @param number Number of variables
+     * @param index Which of the two group arrays of that size
+     * @return The groups, all empty
+     */
+    CubeList[] groups(int number, int index) {
+        if (groups[number] == null) {
+            groups[number] = new CubeList[2][];
+        }
+        CubeList[] lists = groups[number][index];
+        if (lists == null) {
+            lists = new CubeList[number + 1];
+            groups[number][index] = lists;
+        }
+        for (int i = 0; i < lists.length; i++) {
+            if (lists[i] == null) {
+                lists[i] = new CubeList(number);
+            }
+            else {
+                lists[i].clear();
+            }
+        }
+        return lists;
+    }
+
+    /**
+     * Returns cleared merge marks for the given groups.
+     *
+     * @param minterms Cubes grouped by number of 1s
+     * @return One mark per cube of each group, all false
+     */
+    boolean[][] merged(CubeList[] minterms) {
+        if (merged.length < minterms.length) {
+            merged = Arrays.copyOf(merged, minterms.length);
+        }
+        for (int i = 0; i < minterms.length; i++) {
+            int count = minterms[i].count();
+            if (merged[i] == null || merged[i].length < count) {
+                merged[i] = new boolean[Math.max(count, 16)];
+            }
+            else {
+                Arrays.fill(merged[i], 0, count, false);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Returns registers for evaluating an expression.
+     *
+     * @param count Number of registers needed
+     * @return An array of at least count registers
+     */
+    long[] registers(int count) {
+        if (registers.length < count) {
+            registers = new long[count];
+        }
+        return registers;
+    }
+
+    /**
+     * Returns the cleared list for Prime Implicants.
+     */
+    ArrayList<Minterm> primeImplicants() {
+        PIs.clear();
+        return PIs;
+    }
+}
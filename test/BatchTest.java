@@ -0,0 +1,97 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class BatchTest {
+    private final Minimizer minimizer = new Minimizer();
+
+    /**
+     * An ordered batch writes one line per job in input order, errors
+     * included, with the answer a single call gives.
+     */
+    @Test
+    void orderedResultsFollowTheInput() throws Exception {
+        List<String> lines = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        jobs(lines, expected);
+        assertEquals(expected, run(new Batch(4, true, minimizer), lines));
+    }
+
+    @Test
+    void unorderedResultsAreTheSameLines() throws Exception {
+        List<String> lines = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        jobs(lines, expected);
+        List<String> actual = run(new Batch(4, false, minimizer), lines);
+        expected.sort(null);
+        actual.sort(null);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void espressoAnswersHaveAnUnknownGap() throws Exception {
+        Batch batch = new Batch(1, true, new Espresso(10, 0),
+                CoverSolver.Cost.CUBES);
+        assertEquals(List.of("1\tAB + C\tgap=?"),
+                run(batch, List.of("3 A.B + C")));
+    }
+
+    /**
+     * Fills a batch of random jobs, blank lines and broken lines with
+     * the result line each one should get.
+     */
+    private void jobs(List<String> lines, List<String> expected) {
+        Random random = new Random(16);
+        for (int i = 1; i <= 200; i++) {
+            int number = 1 + random.nextInt(6);
+            String expression = Oracle.randomExpression(number, 3, random);
+            switch (random.nextInt(6)) {
+                case 0:
+                    lines.add("   ");
+                    break;
+                case 1:
+                    lines.add(number + " " + expression + "+");
+                    expected.add(i + "\terror: invalid expression");
+                    break;
+                case 2:
+                    lines.add("{\"id\": \"j" + i + "\", \"variables\": "
+                            + number + "}");
+                    // A line that doesn't parse is known by its number
+                    expected.add(i
+                            + "\terror: missing variables or expression");
+                    break;
+                case 3:
+                    lines.add("{\"id\": \"j" + i + "\", \"variables\": "
+                            + number + ", \"expression\": \"" + expression
+                            + "\"}");
+                    expected.add("j" + i + "\t" + minimizer.minimize(
+                            number, expression));
+                    break;
+                default:
+                    lines.add(number + " " + expression);
+                    expected.add(i + "\t" + minimizer.minimize(number,
+                            expression));
+                    break;
+            }
+        }
+    }
+
+    private static List<String> run(Batch batch, List<String> lines)
+            throws IOException, InterruptedException {
+        StringWriter out = new StringWriter();
+        batch.run(new BufferedReader(new StringReader(
+                String.join("\n", lines))), out);
+        String text = out.toString();
+        return text.isEmpty() ? new ArrayList<>()
+                : new ArrayList<>(Arrays.asList(text.split("\n")));
+    }
+}
@@ -0,0 +1,37 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CoverLibraryTest {
+    /**
+     * The shipped library holds a minimum cover of every function of
+     * up to four variables.
+     */
+    @Test
+    void everyCoverIsMinimal() {
+        CoverLibrary library = CoverLibrary.get();
+        Minimizer exact = new Minimizer(null, CoverSolver.Cost.CUBES,
+                null, null, null);
+        for (int number = 1; number <= CoverLibrary.MAX_VARIABLES;
+             number++) {
+            // Every function of up to three variables, 1 in 7 of four
+            int step = number < 4 ? 1 : 7;
+            for (long function = 0; function < 1L << (1 << number);
+                 function += step) {
+                TruthTable on = new TruthTable(number);
+                on.setWord(0, function);
+                TruthTable none = new TruthTable(number);
+                List<Cube> cover = library.lookup(on);
+                Oracle.assertFunction(on, cover);
+                assertEquals(exact.minimize(on, none).getCubes().size(),
+                        cover.size(), "function " + function);
+                assertEquals(cover.size(), library.count(number,
+                        (int) function));
+            }
+        }
+        assertNull(library.lookup(new TruthTable(5)));
+    }
+}
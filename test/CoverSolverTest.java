@@ -0,0 +1,65 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Regression tests of the exact cover search on functions whose cyclic
+ * core is large.
+ */
+class CoverSolverTest {
+    // Budget of each minimization; the search used to need minutes
+    private static final long TIME_LIMIT = 10_000_000_000L;
+
+    @Test
+    void denseEightVariableFunctionsAreSolvedWithinBudget() {
+        Minimizer minimizer = new Minimizer().withLimits(TIME_LIMIT, 0);
+        for (long seed = 0; seed < 10; seed++) {
+            TruthTable on = randomFunction(8, 0.77, seed);
+            MinimizationResult result = minimizer.minimize(on,
+                    new TruthTable(8));
+            assertTrue(result.isOptimal(), "seed " + seed);
+            assertEquals(0, result.getGap(), "seed " + seed);
+            assertCovers(on, result.getCubes());
+        }
+    }
+
+    @Test
+    void literalCostIsSolvedWithinBudget() {
+        Minimizer minimizer = new Minimizer(null,
+                CoverSolver.Cost.LITERALS, null).withLimits(TIME_LIMIT, 0);
+        TruthTable on = randomFunction(8, 0.6, 1);
+        MinimizationResult result = minimizer.minimize(on,
+                new TruthTable(8));
+        assertTrue(result.isOptimal());
+        assertCovers(on, result.getCubes());
+    }
+
+    private static TruthTable randomFunction(int number, double density,
+                                             long seed) {
+        Random random = new Random(seed);
+        TruthTable table = new TruthTable(number);
+        for (long m = 0; m < 1L << number; m++) {
+            if (random.nextDouble() < density) {
+                table.set(m);
+            }
+        }
+        return table;
+    }
+
+    private static void assertCovers(TruthTable on, List<Cube> cubes) {
+        TruthTable answer = new TruthTable(on.getNumber());
+        for (Cube cube : cubes) {
+            for (long m = cube.firstMinterm(); m >= 0;
+                 m = cube.nextMinterm(m)) {
+                answer.set(m);
+            }
+        }
+        for (int w = 0; w < on.wordCount(); w++) {
+            assertEquals(on.getWord(w), answer.getWord(w));
+        }
+    }
+}
@@ -0,0 +1,169 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class CubeTest {
+    @Test
+    void operationsMatchMintermSets() {
+        Random random = new Random(6);
+        for (int i = 0; i < 2000; i++) {
+            int number = 1 + random.nextInt(8);
+            Cube a = randomCube(number, random);
+            Cube b = randomCube(number, random);
+            Set<Long> inA = minterms(a);
+            Set<Long> inB = minterms(b);
+            assertEquals(inA.containsAll(inB), a.contains(b));
+            Set<Long> both = new HashSet<>(inA);
+            both.retainAll(inB);
+            Cube intersection = a.intersect(b);
+            assertEquals(both, intersection == null ? Set.of()
+                    : minterms(intersection));
+            Cube merged = a.distance(b);
+            boolean adjacent = a.getMask(0) == b.getMask(0)
+                    && Long.bitCount(a.getValue(0) ^ b.getValue(0)) == 1;
+            assertEquals(adjacent, merged != null);
+            if (merged != null) {
+                Set<Long> union = new HashSet<>(inA);
+                union.addAll(inB);
+                assertEquals(union, minterms(merged));
+                assertEquals(a.numberOfDashes() + 1,
+                        merged.numberOfDashes());
+            }
+            assertEquals(Cube.parse(a.toString()), a);
+        }
+    }
+
+    @Test
+    void wideCubesSpanSeveralWords() {
+        String x = "1".repeat(40) + "-".repeat(50) + "0".repeat(40);
+        String y = "1".repeat(40) + "-".repeat(50) + "0".repeat(39) + "1";
+        Cube a = Cube.parse(x);
+        Cube b = Cube.parse(y);
+        assertEquals(3, a.wordCount());
+        assertEquals("1".repeat(40) + "-".repeat(50) + "0".repeat(39)
+                + "-", a.distance(b).toString());
+        assertEquals(51, a.distance(b).numberOfDashes());
+        assertNull(a.intersect(b));
+        assertTrue(a.distance(b).contains(a));
+    }
+
+    @Test
+    void listRejectsDuplicatesAndKeepsOrder() {
+        Random random = new Random(7);
+        CubeList list = new CubeList(9);
+        List<Cube> distinct = new ArrayList<>();
+        Set<Cube> seen = new HashSet<>();
+        for (int i = 0; i < 3000; i++) {
+            Cube cube = randomCube(9, random);
+            int index = list.add(cube);
+            if (seen.add(cube)) {
+                assertEquals(distinct.size(), index);
+                distinct.add(cube);
+            }
+            else {
+                assertEquals(-1, index);
+            }
+        }
+        assertEquals(distinct.size(), list.count());
+        for (int i = 0; i < list.count(); i++) {
+            assertEquals(distinct.get(i), list.get(i));
+            assertEquals(1, list.getTag(i));
+        }
+        CubeList copy = new CubeList(9);
+        copy.add(distinct.get(5));
+        copy.addAll(list);
+        assertEquals(list.count(), copy.count());
+        assertEquals(distinct.get(5), copy.get(0));
+        list.clear();
+        assertEquals(0, list.count());
+        assertEquals(0, list.add(distinct.get(0)));
+    }
+
+    /**
+     * The tabulation of Main.foundPI finds exactly the implicants that
+     * no single raised literal keeps inside ON + DC.
+     */
+    @Test
+    void tabulationFindsEveryPrime() {
+        Random random = new Random(8);
+        for (int i = 0; i < 100; i++) {
+            int number = 1 + random.nextInt(7);
+            TruthTable care = Oracle.randomTable(number, 0.5, random);
+            CubeList[] groups = new CubeList[number + 1];
+            for (int g = 0; g < groups.length; g++) {
+                groups[g] = new CubeList(number);
+            }
+            for (long m : Oracle.minterms(care)) {
+                groups[Long.bitCount(m)].add(Cube.ofMinterm(number, m));
+            }
+            ArrayList<Minterm> PIs = new ArrayList<>();
+            while (!Main.isEmpty(groups)) {
+                groups = Main.foundPI(groups, PIs);
+            }
+            Set<Cube> found = new HashSet<>();
+            for (Minterm PI : PIs) {
+                assertTrue(found.add(PI.getCube()), "repeated " + PI
+                        .getCube());
+            }
+            assertEquals(primes(care), found);
+        }
+    }
+
+    private static Set<Cube> primes(TruthTable care) {
+        int number = care.getNumber();
+        Set<Cube> primes = new HashSet<>();
+        for (long mask = 0; mask < 1L << number; mask++) {
+            for (long value = 0; value < 1L << number; value++) {
+                if ((value & mask) != 0) {
+                    continue;
+                }
+                Cube cube = new Cube(number, value, mask);
+                if (!isImplicant(cube, care)) {
+                    continue;
+                }
+                boolean prime = true;
+                for (int bit = 0; bit < number && prime; bit++) {
+                    prime = cube.isDontCare(bit)
+                            || !isImplicant(cube.raise(bit), care);
+                }
+                if (prime) {
+                    primes.add(cube);
+                }
+            }
+        }
+        return primes;
+    }
+
+    private static boolean isImplicant(Cube cube, TruthTable care) {
+        for (long m = cube.firstMinterm(); m >= 0;
+             m = cube.nextMinterm(m)) {
+            if (!care.get(m)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static Cube randomCube(int number, Random random) {
+        long bits = -1L >>> 64 - number;
+        long mask = random.nextLong() & random.nextLong() & bits;
+        return new Cube(number, random.nextLong() & bits, mask);
+    }
+
+    private static Set<Long> minterms(Cube cube) {
+        Set<Long> minterms = new HashSet<>();
+        for (long m = cube.firstMinterm(); m >= 0;
+             m = cube.nextMinterm(m)) {
+            minterms.add(m);
+        }
+        return minterms;
+    }
+}
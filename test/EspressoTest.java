@@ -0,0 +1,77 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class EspressoTest {
+    private final Espresso espresso = new Espresso(20, 0);
+    private final Minimizer exact = new Minimizer(null,
+            CoverSolver.Cost.CUBES, null, null, null);
+
+    /**
+     * Espresso covers stay inside ON + DC, are made of primes, have no
+     * redundant cube and are never below the exact minimum.
+     */
+    @Test
+    void coversArePrimeIrredundantAndValid() {
+        Random random = new Random(13);
+        for (int i = 0; i < 300; i++) {
+            int number = 1 + random.nextInt(8);
+            TruthTable on = Oracle.randomTable(number, 0.4, random);
+            TruthTable dc = Oracle.randomTable(number, 0.1, random);
+            dc.andNot(on);
+            List<Cube> cover = espresso.minimize(cubes(on), cubes(dc));
+            Oracle.assertCovers(on, dc, cover);
+            TruthTable care = Oracle.table(number, cubes(on));
+            care.or(dc);
+            for (Cube cube : cover) {
+                for (int bit = 0; bit < number; bit++) {
+                    assertTrue(cube.isDontCare(bit) || !inside(
+                            cube.raise(bit), care), cube + " not prime");
+                }
+                List<Cube> rest = new ArrayList<>(cover);
+                rest.remove(cube);
+                rest.addAll(cubes(dc));
+                assertFalse(inside(cube, Oracle.table(number, rest)),
+                        cube + " redundant");
+            }
+            assertTrue(cover.size() >= exact.minimize(on, dc).getCubes()
+                    .size());
+        }
+    }
+
+    @Test
+    void containedCubesAreRemoved() {
+        List<Cube> cubes = List.of(Cube.parse("1-0"), Cube.parse("110"),
+                Cube.parse("---"), Cube.parse("0-1"));
+        assertEquals(List.of(Cube.parse("---")),
+                Espresso.removeContained(cubes));
+        List<Cube> kept = Espresso.removeContained(List.of(
+                Cube.parse("1-0"), Cube.parse("110"), Cube.parse("0-1"),
+                Cube.parse("0-1")));
+        assertEquals(List.of(Cube.parse("1-0"), Cube.parse("0-1")), kept);
+    }
+
+    private static List<Cube> cubes(TruthTable table) {
+        List<Cube> cubes = new ArrayList<>();
+        for (long m : Oracle.minterms(table)) {
+            cubes.add(Cube.ofMinterm(table.getNumber(), m));
+        }
+        return cubes;
+    }
+
+    private static boolean inside(Cube cube, TruthTable table) {
+        for (long m = cube.firstMinterm(); m >= 0;
+             m = cube.nextMinterm(m)) {
+            if (!table.get(m)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
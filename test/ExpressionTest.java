@@ -0,0 +1,140 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class ExpressionTest {
+    @Test
+    void coverMatchesEvaluation() {
+        Random random = new Random(8);
+        for (int i = 0; i < 500; i++) {
+            int number = 1 + random.nextInt(8);
+            Expression expression = Expression.compile(
+                    Oracle.randomExpression(number, 5, random), number);
+            Oracle.assertFunction(TruthTable.of(expression),
+                    expression.toCover());
+        }
+    }
+
+    @Test
+    void sharedAndConstantOperandsAreFolded() {
+        Expression expression = Expression.compile(
+                "A.B + (A.B)' . C + C.C' + (A+A').D", 4);
+        Oracle.assertFunction(TruthTable.of(expression),
+                expression.toCover());
+        assertTrue(Expression.compile("A + A'", 1).toCover().get(0)
+                .isUniversal());
+        assertTrue(Expression.compile("A . A'", 1).toCover().isEmpty());
+    }
+
+    /**
+     * A long sum of products used to take seconds because every '+'
+     * removed contained cubes again.
+     */
+    @Test
+    void longSumOfProductsIsJoinedOnce() {
+        Random random = new Random(30);
+        StringBuilder sb = new StringBuilder();
+        for (int t = 0; t < 4000; t++) {
+            if (t > 0) {
+                sb.append('+');
+            }
+            int literals = 3 + random.nextInt(8);
+            for (int l = 0; l < literals; l++) {
+                if (l > 0) {
+                    sb.append('.');
+                }
+                sb.append('x').append(random.nextInt(30));
+                if (random.nextBoolean()) {
+                    sb.append('\'');
+                }
+            }
+        }
+        Expression expression = Expression.compile(sb.toString(), 30);
+        long start = System.nanoTime();
+        List<Cube> cubes = expression.toCover();
+        assertTrue(System.nanoTime() - start < 5_000_000_000L);
+        for (Cube a : cubes) {
+            for (Cube b : cubes) {
+                assertTrue(a == b || !a.contains(b), a + " contains " + b);
+            }
+        }
+    }
+
+    /**
+     * A Reader handing out one character per call splits every token
+     * across reads; the program must still be the one of the string.
+     */
+    @Test
+    void streamingParserMatchesString() throws IOException {
+        Random random = new Random(9);
+        for (int i = 0; i < 300; i++) {
+            int number = 1 + random.nextInt(8);
+            String text = Oracle.randomExpression(number, 5, random);
+            // Write some variables as x0, x1, ... by index
+            StringBuilder indexed = new StringBuilder();
+            for (char ch : text.toCharArray()) {
+                if (Character.isUpperCase(ch) && random.nextBoolean()) {
+                    indexed.append('x').append(ch - 'A');
+                }
+                else {
+                    indexed.append(ch);
+                }
+            }
+            Expression expected = Expression.compile(text, number);
+            Expression streamed = Expression.parse(
+                    oneCharAtATime(indexed.toString()), number);
+            Oracle.assertSame(TruthTable.of(expected),
+                    TruthTable.of(streamed));
+            assertEquals(expected.registerCount(),
+                    streamed.registerCount());
+        }
+    }
+
+    @Test
+    void deepNestingDoesNotRecurse() throws IOException {
+        int depth = 100_000;
+        String text = "(".repeat(depth) + "A'" + ")'".repeat(depth);
+        Expression expression = Expression.parse(new StringReader(text),
+                1);
+        // An even number of negations around A' leaves A'
+        Oracle.assertFunction(TruthTable.of(Expression.compile("A'", 1)),
+                expression.toCover());
+    }
+
+    @Test
+    void constantsAndRepeatsAreFolded() {
+        assertEquals(1, Expression.compile("A.A' + B.B'", 2)
+                .registerCount());
+        assertEquals(Expression.compile("A.B", 2).registerCount(),
+                Expression.compile("A.B + (B.A).(A.B)", 2).registerCount());
+        assertEquals(Expression.compile("A", 1).registerCount(),
+                Expression.compile("(A')'", 1).registerCount());
+    }
+
+    @Test
+    void malformedInputIsRejected() {
+        for (String text : new String[]{"", "A+", "(A", "A)", "A..B",
+                "D", "x3", "A B", "A#", "A''"}) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> Expression.compile(text, 3), text);
+        }
+    }
+
+    private static Reader oneCharAtATime(String text) {
+        return new StringReader(text) {
+            @Override
+            public int read(char[] buffer, int offset, int length)
+                    throws IOException {
+                return super.read(buffer, offset, Math.min(length, 1));
+            }
+        };
+    }
+}
@@ -0,0 +1,71 @@
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class JobTest {
+    @Test
+    void plainLinesTakeTheLineNumberAsId() {
+        Job job = Job.parse("  4   A.B + C'  ", 7);
+        assertEquals("7", job.getId());
+        assertEquals(4, job.getNumber());
+        assertEquals("A.B + C'", job.getExpression());
+        assertEquals(Job.Input.EXPRESSION, job.getInput());
+        assertNull(job.getDcExpression());
+        assertEquals(0, job.getDcMinterms().length);
+    }
+
+    @Test
+    void jsonObjectsReadEveryKey() {
+        Job job = Job.parse("{\"id\": \"f\\\"1\", \"variables\": 4, "
+                + "\"expression\":\"A.B\",\"dc\" : \"C.D\", "
+                + "\"dcMinterms\": \"1, 2\", \"ignored\": 3}", 2);
+        assertEquals("f\"1", job.getId());
+        assertEquals(4, job.getNumber());
+        assertEquals("A.B", job.getExpression());
+        assertEquals("C.D", job.getDcExpression());
+        assertArrayEquals(new long[]{1, 2}, job.getDcMinterms());
+
+        assertEquals(Job.Input.MINTERMS, Job.parse(
+                "{\"variables\": 3, \"minterms\": \"0,7\"}", 1).getInput());
+        assertEquals(Job.Input.CUBES, Job.parse(
+                "{\"variables\": 3, \"cubes\": \"1-0 01-\"}", 1)
+                .getInput());
+        Job file = Job.parse("{\"variables\": \"3\", \"file\": "
+                + "\"a\\\\b.txt\"}", 5);
+        assertEquals(Job.Input.FILE, file.getInput());
+        assertEquals("a\\b.txt", file.getExpression());
+        assertEquals("5", file.getId());
+    }
+
+    @Test
+    void malformedLinesAreRejected() {
+        for (String line : new String[]{"x A.B", "{\"variables\": 3}",
+                "{\"expression\": \"A\"}", "{\"variables\" 3}",
+                "{\"variables\": 3, \"expression\": \"A",
+                "{\"variables\": 3, \"expression\": \"A\"",
+                "{\"variables\": three, \"expression\": \"A\"}",
+                "{\"variables\": 3, \"minterms\": \"1\", "
+                        + "\"dcMinterms\": \"1;2\"}"}) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> Job.parse(line, 1), line);
+        }
+    }
+
+    @Test
+    void listsAreParsed() {
+        assertArrayEquals(new long[]{1, 5, 7},
+                Job.parseMinterms(" 1, 5 ,7"));
+        assertEquals(0, Job.parseMinterms("").length);
+        assertEquals(List.of(Cube.parse("1-0"), Cube.parse("01-")),
+                Job.parseCubes(" 1-0,01-\n", 3));
+        assertThrows(IllegalArgumentException.class,
+                () -> Job.parseCubes("1-0 01", 3));
+        assertThrows(IllegalArgumentException.class,
+                () -> Job.parseCubes("1-x", 3));
+    }
+}
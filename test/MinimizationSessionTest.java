@@ -0,0 +1,130 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class MinimizationSessionTest {
+    private final Minimizer minimizer = new Minimizer(null,
+            CoverSolver.Cost.CUBES, null, null, null);
+
+    /**
+     * Moves random minterms between the ON, OFF and don't-care sets
+     * and compares the session with a full recomputation after each
+     * update: the PIs are those of the whole tabulation, the cover is
+     * valid and irredundant, and solving it again gives the minimum.
+     */
+    @Test
+    void updatesMatchFullRecomputation() {
+        Random random = new Random(5);
+        int updates = 0;
+        for (int f = 0; f < 300; f++) {
+            int number = 2 + random.nextInt(7);
+            TruthTable on = Oracle.randomTable(number, 0.4, random);
+            TruthTable dc = Oracle.randomTable(number, 0.1, random);
+            for (long m : Oracle.minterms(on)) {
+                Oracle.unset(dc, m);
+            }
+            MinimizationSession session = new MinimizationSession(number,
+                    CoverSolver.Cost.CUBES, Oracle.minterms(on),
+                    Oracle.minterms(dc));
+            for (int u = 0; u < 40; u++, updates++) {
+                long m = random.nextInt(1 << number);
+                switch (random.nextInt(3)) {
+                    case 0:
+                        session.add(m);
+                        on.set(m);
+                        Oracle.unset(dc, m);
+                        break;
+                    case 1:
+                        session.addDontCare(m);
+                        dc.set(m);
+                        Oracle.unset(on, m);
+                        break;
+                    default:
+                        session.remove(m);
+                        Oracle.unset(on, m);
+                        Oracle.unset(dc, m);
+                        break;
+                }
+                assertEquals(primes(on, dc),
+                        new HashSet<>(session.getPrimeImplicants()));
+                List<Cube> cubes = session.getCubes();
+                Oracle.assertCovers(on, dc, cubes);
+                assertIrredundant(on, cubes);
+            }
+            session.resolve();
+            assertEquals(minimizer.minimize(number, Oracle.minterms(on),
+                    Oracle.minterms(dc)).getCubes().size(),
+                    session.getCubes().size());
+        }
+        assertEquals(12_000, updates);
+    }
+
+    @Test
+    void timeLimitKeepsAValidCover() {
+        Random random = new Random(12);
+        TruthTable on = Oracle.randomTable(12, 0.5, random);
+        TruthTable dc = new TruthTable(12);
+        MinimizationSession session = new MinimizationSession(12,
+                CoverSolver.Cost.CUBES, Oracle.minterms(on), new long[0],
+                100_000_000L);
+        for (int u = 0; u < 100; u++) {
+            long m = random.nextInt(1 << 12);
+            if (random.nextBoolean()) {
+                session.add(m);
+                on.set(m);
+            }
+            else {
+                session.remove(m);
+                Oracle.unset(on, m);
+            }
+        }
+        Oracle.assertCovers(on, dc, session.getCubes());
+    }
+
+    private static Set<Cube> primes(TruthTable on, TruthTable dc) {
+        int number = on.getNumber();
+        CubeList[] groups = new CubeList[number + 1];
+        for (int i = 0; i < groups.length; i++) {
+            groups[i] = new CubeList(number);
+        }
+        for (long m = 0; m < 1L << number; m++) {
+            if (on.get(m) || dc.get(m)) {
+                groups[Long.bitCount(m)].add(Cube.ofMinterm(number, m));
+            }
+        }
+        ArrayList<Minterm> PIs = new ArrayList<>();
+        while (!Main.isEmpty(groups)) {
+            groups = Main.foundPI(groups, PIs);
+        }
+        Set<Cube> cubes = new HashSet<>();
+        for (Minterm PI : PIs) {
+            cubes.add(PI.getCube());
+        }
+        return cubes;
+    }
+
+    /**
+     * Checks that each cube covers an ON minterm no other cube does.
+     */
+    private static void assertIrredundant(TruthTable on,
+                                          List<Cube> cubes) {
+        for (Cube cube : cubes) {
+            List<Cube> others = new ArrayList<>(cubes);
+            others.remove(cube);
+            TruthTable rest = Oracle.table(on.getNumber(), others);
+            boolean own = false;
+            for (long m = cube.firstMinterm(); m >= 0 && !own;
+                 m = cube.nextMinterm(m)) {
+                own = on.get(m) && !rest.get(m);
+            }
+            assertTrue(own, cube + " is redundant");
+        }
+    }
+}
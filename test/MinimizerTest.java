@@ -0,0 +1,103 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class MinimizerTest {
+    @Test
+    void espressoCoversAreNotOptimal() {
+        Minimizer minimizer = new Minimizer(new Espresso(10, 0),
+                CoverSolver.Cost.CUBES, null);
+        TruthTable on = Oracle.randomTable(6, 0.5, new Random(3));
+        MinimizationResult result = minimizer.minimize(on,
+                new TruthTable(6));
+        Oracle.assertFunction(on, result.getCubes());
+        assertFalse(result.isOptimal());
+        assertEquals(MinimizationResult.UNKNOWN_GAP, result.getGap());
+    }
+
+    @Test
+    void budgetedCallsReadTheCacheButDontFillIt() {
+        ResultCache cache = new ResultCache(100, 1 << 20, 0);
+        Minimizer minimizer = new Minimizer(null, CoverSolver.Cost.CUBES,
+                null, cache, null);
+        TruthTable on = Oracle.randomTable(9, 0.5, new Random(4));
+        TruthTable dc = new TruthTable(9);
+        MinimizationResult cut = minimizer.minimize(on, dc,
+                new Budget(0, 1));
+        Oracle.assertFunction(on, cut.getCubes());
+        assertFalse(cut.isOptimal());
+        assertEquals(0, cache.size());
+
+        MinimizationResult exact = minimizer.minimize(on, dc);
+        assertEquals(1, cache.size());
+        MinimizationResult hit = minimizer.minimize(on, dc,
+                new Budget(0, 1));
+        assertTrue(hit.isOptimal());
+        assertEquals(exact.getCubes(), hit.getCubes());
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    void cubeListsMatchTheirTruthTables() {
+        Minimizer minimizer = new Minimizer(null, CoverSolver.Cost.CUBES,
+                null, null, null);
+        Random random = new Random(19);
+        for (int i = 0; i < 300; i++) {
+            int number = 2 + random.nextInt(9);
+            // Some variables are free in every cube
+            long free = random.nextLong() & random.nextLong()
+                    & -1L >>> 64 - number;
+            List<Cube> on = randomCubes(number, free, random);
+            List<Cube> dc = random.nextBoolean() ? new ArrayList<>()
+                    : randomCubes(number, free, random);
+            MinimizationResult result = minimizer.minimize(number, on, dc);
+            TruthTable onTable = Oracle.table(number, on);
+            TruthTable dcTable = Oracle.table(number, dc);
+            Oracle.assertCovers(onTable, dcTable, result.getCubes());
+            assertEquals(minimizer.minimize(onTable, dcTable).getCubes()
+                    .size(), result.getCubes().size());
+        }
+    }
+
+    @Test
+    void wideCubesAreNotExpanded() {
+        Minimizer minimizer = new Minimizer();
+        List<Cube> on = new ArrayList<>();
+        String dashes = "-".repeat(38);
+        on.add(Cube.parse("10" + dashes));
+        on.add(Cube.parse("01" + dashes));
+        on.add(Cube.parse("11" + dashes));
+        MinimizationResult result = minimizer.minimize(40, on,
+                new ArrayList<>());
+        assertEquals(2, result.getCubes().size());
+        assertEquals(2, result.getLiterals());
+    }
+
+    @Test
+    void blankMintermListIsEmpty() {
+        assertEquals(0, Job.parseMinterms("").length);
+        assertEquals(0, Job.parseMinterms("  ").length);
+        Job job = new Job("1", 3, "");
+        job.setInput(Job.Input.MINTERMS);
+        MinimizationResult result = new Minimizer().minimize(job);
+        assertTrue(result.getCubes().isEmpty());
+    }
+
+    private static List<Cube> randomCubes(int number, long free,
+                                          Random random) {
+        List<Cube> cubes = new ArrayList<>();
+        for (int i = 1 + random.nextInt(8); i > 0; i--) {
+            long mask = (random.nextLong() & random.nextLong() | free)
+                    & -1L >>> 64 - number;
+            cubes.add(new Cube(number, random.nextLong()
+                    & -1L >>> 64 - number, mask));
+        }
+        return cubes;
+    }
+}
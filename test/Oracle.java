@@ -0,0 +1,116 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Truth table checks shared by the tests: a cover is expanded back to
+ * its minterms and compared with the function, as ScalingHarness does.
+ */
+final class Oracle {
+    private Oracle() {
+    }
+
+    /**
+     * Returns a random function, each minterm in it with a
+     * probability.
+     */
+    static TruthTable randomTable(int number, double density,
+                                  Random random) {
+        TruthTable table = new TruthTable(number);
+        for (long m = 0; m < 1L << number; m++) {
+            if (random.nextDouble() < density) {
+                table.set(m);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Returns a random expression over the letters A, B, ... with
+     * nested groups and negations, depth levels deep.
+     */
+    static String randomExpression(int number, int depth, Random random) {
+        if (depth == 0 || random.nextInt(4) == 0) {
+            String variable = String.valueOf((char) ('A'
+                    + random.nextInt(number)));
+            return random.nextBoolean() ? variable + "'" : variable;
+        }
+        StringBuilder sb = new StringBuilder("(");
+        int operands = 2 + random.nextInt(3);
+        char operator = random.nextBoolean() ? '+' : '.';
+        for (int i = 0; i < operands; i++) {
+            if (i > 0) {
+                sb.append(operator);
+            }
+            sb.append(randomExpression(number, depth - 1, random));
+        }
+        sb.append(')');
+        if (random.nextInt(3) == 0) {
+            sb.append('\'');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Expands cubes to the truth table of their union.
+     */
+    static TruthTable table(int number, List<Cube> cubes) {
+        TruthTable table = new TruthTable(number);
+        for (Cube cube : cubes) {
+            for (long m = cube.firstMinterm(); m >= 0;
+                 m = cube.nextMinterm(m)) {
+                table.set(m);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Checks that cubes cover every ON minterm and nothing outside the
+     * ON-set and the don't-cares.
+     */
+    static void assertCovers(TruthTable on, TruthTable dontCares,
+                             List<Cube> cubes) {
+        TruthTable answer = table(on.getNumber(), cubes);
+        for (long m = 0; m < 1L << on.getNumber(); m++) {
+            if (on.get(m)) {
+                assertTrue(answer.get(m), "minterm " + m + " uncovered");
+            }
+            else if (!dontCares.get(m)) {
+                assertTrue(!answer.get(m), "minterm " + m + " covered");
+            }
+        }
+    }
+
+    /**
+     * Checks that cubes are exactly a function.
+     */
+    static void assertFunction(TruthTable expected, List<Cube> cubes) {
+        assertSame(expected, table(expected.getNumber(), cubes));
+    }
+
+    static void assertSame(TruthTable expected, TruthTable actual) {
+        assertEquals(expected.getNumber(), actual.getNumber());
+        for (int w = 0; w < expected.wordCount(); w++) {
+            assertEquals(expected.getWord(w), actual.getWord(w),
+                    "word " + w);
+        }
+    }
+
+    static void unset(TruthTable table, long minterm) {
+        int word = (int) (minterm >>> 6);
+        table.setWord(word, table.getWord(word) & ~(1L << minterm));
+    }
+
+    static long[] minterms(TruthTable table) {
+        long[] minterms = new long[(int) table.cardinality()];
+        long m = table.nextMinterm(0);
+        for (int i = 0; i < minterms.length; i++) {
+            minterms[i] = m;
+            m = table.nextMinterm(m + 1);
+        }
+        return minterms;
+    }
+}
@@ -0,0 +1,202 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PlaTest {
+    private final Minimizer minimizer = new Minimizer(null,
+            CoverSolver.Cost.CUBES, null, null, null);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void rowsSpanningChunksReadAlike() throws IOException {
+        Path file = write("""
+                .i 5
+                .o 3
+                .ilb a b c d e
+                .ob f g h
+                # rows of every width of output
+                01-10 1-0
+                1--01 011
+                -0-1- 1~0
+                11111 -11
+                .e
+                """);
+        Pla whole = Pla.read(file);
+        for (int chunk = 1; chunk < 12; chunk++) {
+            Pla chunked = Pla.read(file, chunk);
+            for (int o = 0; o < 3; o++) {
+                assertEquals(whole.getOnSet(o), chunked.getOnSet(o));
+                assertEquals(whole.getDontCares(o),
+                        chunked.getDontCares(o));
+                assertEquals(whole.getOffSet(o), chunked.getOffSet(o));
+            }
+        }
+        assertEquals(List.of(Cube.parse("01-10"), Cube.parse("-0-1-")),
+                whole.getOnSet(0));
+    }
+
+    @Test
+    void alternativeCharactersAndMidRowComments() throws IOException {
+        Pla pla = Pla.read(write("""
+                .i 4
+                .o 3
+                .type fd
+                2-01 4~3   # 4 is ON, ~ is none, 3 is OFF
+                1 1 0 0  2 1 ~# spaces and a comment right after
+                0000 | 1-4
+                """));
+        assertEquals(List.of(Cube.parse("--01"), Cube.parse("0000")),
+                pla.getOnSet(0));
+        assertEquals(List.of(Cube.parse("1100")), pla.getDontCares(0));
+        assertEquals(List.of(Cube.parse("1100")), pla.getOnSet(1));
+        assertEquals(List.of(Cube.parse("0000")), pla.getDontCares(1));
+        assertEquals(List.of(Cube.parse("0000")), pla.getOnSet(2));
+        // fd ignores OFF rows: the OFF-set is what no row gives
+        Oracle.assertSame(complement(4, pla.getOnSet(2)),
+                Oracle.table(4, pla.getOffSet(2)));
+    }
+
+    @Test
+    void typeFrLeavesTheRestDontCare() throws IOException {
+        Path file = write("""
+                .i 3
+                .o 1
+                .type fr
+                11- 1
+                00- 0
+                010 0
+                """);
+        Pla pla = Pla.read(file);
+        TruthTable off = Oracle.table(3, pla.getOffSet(0));
+        TruthTable dc = Oracle.table(3, pla.getDontCares(0));
+        for (long m = 0; m < 8; m++) {
+            boolean on = m >= 6;
+            boolean isOff = m < 2 || m == 2;
+            assertEquals(isOff, off.get(m), "minterm " + m);
+            assertEquals(!on && !isOff, dc.get(m), "minterm " + m);
+        }
+        List<Cube> cover = minimizeFile(file).get(0);
+        Oracle.assertCovers(Oracle.table(3, pla.getOnSet(0)), dc, cover);
+        assertEquals(List.of(Cube.parse("1--")), cover);
+    }
+
+    @Test
+    void typeFdrReadsAllThreeSets() throws IOException {
+        Path file = write("""
+                .i 3
+                .o 2
+                .type fdr
+                111 1-
+                110 -1
+                0-- 00
+                """);
+        Pla pla = Pla.read(file);
+        assertEquals(List.of(Cube.parse("110")), pla.getDontCares(0)
+                .subList(0, 1));
+        TruthTable dc = Oracle.table(3, pla.getDontCares(0));
+        for (long m = 0; m < 8; m++) {
+            assertEquals(m == 4 || m == 5 || m == 6, dc.get(m),
+                    "minterm " + m);
+        }
+        List<List<Cube>> covers = minimizeFile(file);
+        assertEquals(List.of(Cube.parse("1--")), covers.get(0));
+        assertEquals(List.of(Cube.parse("1--")), covers.get(1));
+    }
+
+    @Test
+    void malformedRowsAreRejected() throws IOException {
+        Path file = write(".i 2\n.o 1\n01 1\n0x 1\n");
+        IllegalArgumentException e = assertThrows(
+                IllegalArgumentException.class, () -> Pla.read(file));
+        assertEquals("invalid PLA: invalid input at line 4",
+                e.getMessage());
+        assertThrows(IllegalArgumentException.class,
+                () -> Pla.read(write(".i 2\n.o 2\n01 1 # short\n")));
+    }
+
+    /**
+     * Random multiple-output PLAs go through Main.minimizePla and come
+     * back with a valid cover of every output, using no more rows
+     * than minimizing the outputs one by one.
+     */
+    @Test
+    void sharedCoversRoundTrip() throws IOException {
+        Random random = new Random(25);
+        for (int i = 0; i < 40; i++) {
+            int inputs = 2 + random.nextInt(5);
+            int outputs = 2 + random.nextInt(3);
+            StringBuilder sb = new StringBuilder(".i " + inputs + "\n.o "
+                    + outputs + "\n");
+            for (int r = 0; r < 3 + random.nextInt(10); r++) {
+                for (int c = 0; c < inputs; c++) {
+                    sb.append("01-".charAt(random.nextInt(3)));
+                }
+                sb.append(' ');
+                for (int o = 0; o < outputs; o++) {
+                    sb.append("1100-~".charAt(random.nextInt(6)));
+                }
+                sb.append('\n');
+            }
+            Path file = write(sb.toString());
+            Pla pla = Pla.read(file);
+            List<List<Cube>> covers = minimizeFile(file);
+            Set<Cube> separate = new HashSet<>();
+            for (int o = 0; o < outputs; o++) {
+                Oracle.assertCovers(Oracle.table(inputs, pla.getOnSet(o)),
+                        Oracle.table(inputs, pla.getDontCares(o)),
+                        covers.get(o));
+                separate.addAll(minimizer.minimize(inputs, pla.getOnSet(o),
+                        pla.getDontCares(o)).getCubes());
+            }
+            Set<Cube> rows = new HashSet<>();
+            covers.forEach(rows::addAll);
+            assertTrue(rows.size() <= separate.size(), sb.toString());
+        }
+    }
+
+    private Path write(String text) throws IOException {
+        Path file = Files.createTempFile(dir, "test", ".pla");
+        Files.writeString(file, text);
+        return file;
+    }
+
+    /**
+     * Minimizes a PLA file with Main.minimizePla and reads back the
+     * cover of every output.
+     */
+    private List<List<Cube>> minimizeFile(Path in) throws IOException {
+        Path out = dir.resolve("out.pla");
+        Main.minimizePla(in.toString(), out.toString(), minimizer);
+        Pla result = Pla.read(out);
+        List<List<Cube>> covers = new ArrayList<>();
+        for (int o = 0; o < result.getOutputs(); o++) {
+            covers.add(result.getOnSet(o));
+        }
+        return covers;
+    }
+
+    private static TruthTable complement(int number, List<Cube> cubes) {
+        TruthTable on = Oracle.table(number, cubes);
+        TruthTable off = new TruthTable(number);
+        for (long m = 0; m < 1L << number; m++) {
+            if (!on.get(m)) {
+                off.set(m);
+            }
+        }
+        return off;
+    }
+}
@@ -0,0 +1,98 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class ResultCacheTest {
+    private final Minimizer exact = new Minimizer(null,
+            CoverSolver.Cost.CUBES, null, null, null);
+
+    /**
+     * Every permutation and negation of the inputs of a function hits
+     * the entry of the first one, and the restored cover is a minimum
+     * cover of the function asked for.
+     */
+    @Test
+    void equivalentFunctionsShareOneEntry() {
+        Random random = new Random(14);
+        for (int i = 0; i < 60; i++) {
+            int number = 1 + random.nextInt(6);
+            ResultCache cache = new ResultCache(100, 1 << 20, 6);
+            TruthTable on = Oracle.randomTable(number, 0.4, random);
+            TruthTable dc = Oracle.randomTable(number, 0.1, random);
+            dc.andNot(on);
+            get(cache, on, dc);
+            for (int k = 0; k < 5; k++) {
+                int[] perm = permutation(number, random);
+                long neg = random.nextLong() & -1L >>> 64 - number;
+                TruthTable permutedOn = permute(on, perm, neg);
+                TruthTable permutedDc = permute(dc, perm, neg);
+                List<Cube> cover = get(cache, permutedOn, permutedDc);
+                Oracle.assertCovers(permutedOn, permutedDc, cover);
+                assertEquals(exact.minimize(permutedOn, permutedDc)
+                        .getCubes().size(), cover.size());
+            }
+            assertEquals(1, cache.size());
+            assertEquals(5, cache.getHits());
+        }
+    }
+
+    @Test
+    void largerFunctionsAreKeyedAsGiven() {
+        ResultCache cache = new ResultCache(2, 1 << 20, 4);
+        Random random = new Random(15);
+        TruthTable a = Oracle.randomTable(8, 0.5, random);
+        TruthTable b = Oracle.randomTable(8, 0.5, random);
+        TruthTable c = Oracle.randomTable(8, 0.5, random);
+        TruthTable none = new TruthTable(8);
+        Oracle.assertFunction(a, get(cache, a, none));
+        Oracle.assertFunction(b, get(cache, b, none));
+        Oracle.assertFunction(a, get(cache, a, none));
+        // c evicts b, the least recently used
+        Oracle.assertFunction(c, get(cache, c, none));
+        assertEquals(1, cache.getEvictions());
+        Oracle.assertFunction(a, get(cache, a, none));
+        assertEquals(2, cache.getHits());
+        Oracle.assertFunction(b, get(cache, b, none));
+        assertEquals(4, cache.getMisses());
+    }
+
+    private List<Cube> get(ResultCache cache, TruthTable on,
+                           TruthTable dc) {
+        return cache.get(on, dc, CoverSolver.Cost.CUBES,
+                (table, dontCares) -> exact.minimize(table, dontCares)
+                        .getCubes());
+    }
+
+    private static int[] permutation(int number, Random random) {
+        int[] perm = new int[number];
+        for (int i = 0; i < number; i++) {
+            int j = random.nextInt(i + 1);
+            perm[i] = perm[j];
+            perm[j] = i;
+        }
+        return perm;
+    }
+
+    /**
+     * Bit p of a minterm of the result is bit perm[p] of a minterm of
+     * the table, negated where neg has a 1.
+     */
+    private static TruthTable permute(TruthTable table, int[] perm,
+                                      long neg) {
+        int number = table.getNumber();
+        TruthTable result = new TruthTable(number);
+        for (long m = 0; m < 1L << number; m++) {
+            long original = 0;
+            for (int p = 0; p < number; p++) {
+                original |= ((m ^ neg) >>> p & 1) << perm[p];
+            }
+            if (table.get(original)) {
+                result.set(m);
+            }
+        }
+        return result;
+    }
+}
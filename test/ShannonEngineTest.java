@@ -0,0 +1,77 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the decomposed covers against the exact minimum of the whole
+ * function: a cover is always valid, and its budget either proves it
+ * minimal or gives a bound no larger than the minimum.
+ */
+class ShannonEngineTest {
+    private final Minimizer exact = new Minimizer(null,
+            CoverSolver.Cost.CUBES, null, null, null);
+    private final ShannonEngine engine = new ShannonEngine(exact, 6, null);
+
+    @Test
+    void boundsHoldTheMinimum() {
+        Random random = new Random(6);
+        for (int i = 0; i < 12; i++) {
+            int number = 8 + random.nextInt(2);
+            TruthTable on = Oracle.randomTable(number, 0.3, random);
+            TruthTable dc = i % 3 == 0 ? new TruthTable(number)
+                    : Oracle.randomTable(number, 0.1, random);
+            on.andNot(dc);
+            MinimizationResult minimum = exact.minimize(on, dc);
+            assertTrue(minimum.isOptimal());
+            int size = minimum.getCubes().size();
+
+            Budget budget = new Budget(0, 0);
+            List<Cube> cover = engine.minimize(on, dc, budget);
+            Oracle.assertCovers(on, dc, cover);
+            if (budget.isOptimal()) {
+                assertEquals(size, cover.size(), "function " + i);
+            } else {
+                assertTrue(budget.getLowerBound() <= size, "function " + i);
+                assertTrue(size <= cover.size(), "function " + i);
+            }
+        }
+    }
+
+    @Test
+    void decomposingMinimizerReportsItsGap() {
+        Minimizer decomposing = exact.withDecomposition(6);
+        Random random = new Random(60);
+        for (int i = 0; i < 8; i++) {
+            TruthTable on = Oracle.randomTable(9, 0.25, random);
+            TruthTable dc = new TruthTable(9);
+            int size = exact.minimize(on, dc).getCubes().size();
+            MinimizationResult result = decomposing.minimize(on, dc);
+            Oracle.assertCovers(on, dc, result.getCubes());
+            assertTrue(result.getGap() >= 0, "function " + i);
+            if (result.isOptimal()) {
+                assertEquals(size, result.getCubes().size(),
+                        "function " + i);
+            } else {
+                assertTrue(size <= result.getCubes().size(),
+                        "function " + i);
+            }
+        }
+    }
+
+    @Test
+    void constantsGiveNoCubesOrTheUniversalCube() {
+        TruthTable zero = new TruthTable(10);
+        assertEquals(List.of(), engine.minimize(zero, zero));
+        TruthTable one = new TruthTable(10);
+        for (long m = 0; m < 1 << 10; m++) {
+            one.set(m);
+        }
+        List<Cube> cover = engine.minimize(one, new TruthTable(10));
+        assertEquals(1, cover.size());
+        assertTrue(Oracle.table(10, cover).isFull());
+    }
+}
@@ -0,0 +1,74 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TruthTableTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void mappedTableMatchesHeapTable() {
+        Random random = new Random(10);
+        for (int number : new int[]{1, 5, 6, 7, 12, 20}) {
+            Expression expression = Expression.compile(
+                    Oracle.randomExpression(Math.min(number, 26), 6,
+                            random), number);
+            TruthTable heap = TruthTable.of(expression);
+            TruthTable mapped = TruthTable.mapTemporary(number);
+            assertTrue(mapped.isMapped());
+            assertEquals(0, mapped.cardinality());
+            mapped.fill(expression,
+                    new long[expression.registerCount()]);
+            Oracle.assertSame(heap, mapped);
+            assertEquals(heap.cardinality(), mapped.cardinality());
+            assertEquals(heap.isFull(), mapped.isFull());
+            for (long m = heap.nextMinterm(0), n = mapped.nextMinterm(0);
+                 m >= 0 || n >= 0;
+                 m = heap.nextMinterm(m + 1), n = mapped.nextMinterm(n + 1)) {
+                assertEquals(m, n);
+            }
+            TruthTable other = Oracle.randomTable(number, 0.3, random);
+            heap.or(other);
+            mapped.or(other);
+            Oracle.assertSame(heap, mapped);
+            heap.andNot(other);
+            mapped.andNot(other);
+            Oracle.assertSame(heap, mapped);
+            mapped.clear();
+            assertEquals(0, mapped.cardinality());
+        }
+    }
+
+    @Test
+    void mappedFileKeepsItsMinterms() {
+        Path file = dir.resolve("table.bin");
+        TruthTable written = TruthTable.map(16, file);
+        TruthTable expected = Oracle.randomTable(16, 0.2, new Random(11));
+        for (long m : Oracle.minterms(expected)) {
+            written.set(m);
+        }
+        written.force();
+        TruthTable read = TruthTable.map(16, file);
+        Oracle.assertSame(expected, read);
+    }
+
+    @Test
+    void minimizingAMappedTableGivesItsFunction() {
+        Random random = new Random(12);
+        TruthTable on = TruthTable.mapTemporary(9);
+        TruthTable heap = Oracle.randomTable(9, 0.4, random);
+        for (long m : Oracle.minterms(heap)) {
+            on.set(m);
+        }
+        MinimizationResult result = new Minimizer().minimize(on,
+                TruthTable.mapTemporary(9));
+        Oracle.assertFunction(heap, result.getCubes());
+        assertEquals(new Minimizer().minimize(heap, new TruthTable(9))
+                .getCubes().size(), result.getCubes().size());
+    }
+}